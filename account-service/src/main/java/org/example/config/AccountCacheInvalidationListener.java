@@ -0,0 +1,26 @@
+package org.example.config;
+
+import org.example.model.AccountCacheInvalidation;
+import org.example.service.AccountCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "accounts.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class AccountCacheInvalidationListener {
+
+    private final AccountCache accountCache;
+
+    public AccountCacheInvalidationListener(AccountCache accountCache) {
+        this.accountCache = accountCache;
+    }
+
+    @KafkaListener(topics = "${accounts.cache.invalidation.topic:account-cache-invalidations}",
+            containerFactory = "accountCacheInvalidationContainerFactory")
+    public void onInvalidation(AccountCacheInvalidation invalidation) {
+        if (invalidation != null) {
+            accountCache.onInvalidation(invalidation);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Identity carried by a verified JWT; stored as the principal of the security context
+ * so controllers never parse the token again.
+ */
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal {
+
+    private final String username;
+
+    private final Long userId;
+
+    private final Instant expiresAt;
+}
@@ -1,33 +1,81 @@
 package org.example.config;
 
-import org.example.model.TransactionEvent;
+import org.example.common.TransactionEvent;
+import org.example.common.TransactionEventDeserializer;
+import org.example.model.AccountCacheInvalidation;
+import org.example.model.AccountEvent;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${spring.kafka.listener.auto-startup:true}")
+    private boolean autoStartup;
+
+    @Value("${transaction-events.consumer.concurrency:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int listenerConcurrency;
+
+    @Value("${transaction-events.consumer.lanes:#{T(java.lang.Runtime).getRuntime().availableProcessors() * 2}}")
+    private int lanes;
+
+    @Value("${transaction-events.partitions:12}")
+    private int partitions;
+
+    @Value("${transaction-events.replicas:1}")
+    private short replicas;
+
+    /**
+     * Concurrency is capped by the partition count, so the topic is declared here
+     * with enough partitions for the consumer side to scale out.
+     */
+    @Bean
+    public NewTopic transactionEventsTopic() {
+        return TopicBuilder.name("transaction-events")
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
     @Bean
     public ConsumerFactory<String, TransactionEvent> consumerFactory() {
-        JsonDeserializer<TransactionEvent> deserializer = new JsonDeserializer<>(TransactionEvent.class);
-        deserializer.addTrustedPackages("*"); // trust all packages or your specific package
+        // Binary codec from bank-common: no type headers or reflective type lookup
+        TransactionEventDeserializer deserializer = new TransactionEventDeserializer();
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "account-service");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, TransactionEventDeserializer.class);
 
         return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
     }
@@ -37,6 +85,81 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, TransactionEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setAutoStartup(autoStartup);
+        factory.setConcurrency(listenerConcurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        // This factory replaces Boot's, so spring.threads.virtual.enabled has to be applied by hand
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor listenerExecutor = new SimpleAsyncTaskExecutor("kafka-listener-");
+            listenerExecutor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(listenerExecutor);
+        }
+        return factory;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public OrderedLaneDispatcher transactionLaneDispatcher() {
+        ExecutorService executor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(lanes);
+        return new OrderedLaneDispatcher(executor, lanes);
+    }
+
+    @Bean
+    public ProducerFactory<String, AccountEvent> accountEventProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, AccountEvent> accountEventKafkaTemplate() {
+        return new KafkaTemplate<>(accountEventProducerFactory());
+    }
+
+    // Account cache invalidations: every instance must see every message, so each
+    // one reads with its own throwaway group, from the latest offset
+
+    @Bean
+    @ConditionalOnProperty(name = "accounts.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+    public NewTopic accountCacheInvalidationTopic(
+            @Value("${accounts.cache.invalidation.topic:account-cache-invalidations}") String topic) {
+        return TopicBuilder.name(topic)
+                .partitions(1)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "accounts.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+    public KafkaTemplate<String, AccountCacheInvalidation> accountCacheInvalidationKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "accounts.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+    public ConcurrentKafkaListenerContainerFactory<String, AccountCacheInvalidation> accountCacheInvalidationContainerFactory() {
+        JsonDeserializer<AccountCacheInvalidation> deserializer = new JsonDeserializer<>(AccountCacheInvalidation.class, false);
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "account-cache-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        ConcurrentKafkaListenerContainerFactory<String, AccountCacheInvalidation> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer));
+        factory.setAutoStartup(autoStartup);
         return factory;
     }
 }
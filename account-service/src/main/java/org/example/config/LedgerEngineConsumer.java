@@ -0,0 +1,45 @@
+package org.example.config;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.example.common.TransactionEvent;
+import org.example.ledger.LedgerEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * transaction-events listener for ledger engine mode; replaces
+ * {@link TransactionConsumer}. On assignment it seeks each partition to the offset
+ * the in-memory state already covers, so events are neither skipped nor applied twice.
+ */
+@Service
+@ConditionalOnProperty(name = "ledger.engine.enabled", havingValue = "true")
+public class LedgerEngineConsumer implements ConsumerSeekAware {
+
+    private final LedgerEngine ledgerEngine;
+
+    public LedgerEngineConsumer(LedgerEngine ledgerEngine) {
+        this.ledgerEngine = ledgerEngine;
+    }
+
+    @KafkaListener(topics = "transaction-events", groupId = "account-service")
+    public void consumeBatch(List<ConsumerRecord<String, TransactionEvent>> records) {
+        ledgerEngine.apply(records);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Map<Integer, Long> applied = ledgerEngine.appliedOffsets();
+        for (TopicPartition partition : assignments.keySet()) {
+            Long next = applied.get(partition.partition());
+            if (next != null) {
+                callback.seek(partition.topic(), partition.partition(), next);
+            }
+        }
+    }
+}
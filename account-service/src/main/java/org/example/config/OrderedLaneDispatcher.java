@@ -0,0 +1,70 @@
+package org.example.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Splits one polled batch into parallel lanes. Items with the same lane key (the
+ * account) always land on the same lane, in their original order, and each lane
+ * is handed to the handler as one sub-batch, so it is still applied in a single
+ * DB transaction. {@link #dispatch} returns once every lane has finished, so the
+ * container only commits offsets for a fully applied batch.
+ */
+public class OrderedLaneDispatcher {
+
+    private final ExecutorService executor;
+    private final int lanes;
+
+    public OrderedLaneDispatcher(ExecutorService executor, int lanes) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("lanes must be at least 1");
+        }
+        this.executor = executor;
+        this.lanes = lanes;
+    }
+
+    /**
+     * A failing lane fails the whole batch once the other lanes are done. Lanes
+     * that already committed are replayed with it, so the handler has to be
+     * idempotent (the processed-events ledger makes applyTransactionEvents so).
+     */
+    public <T> void dispatch(List<T> items, Function<T, ?> laneKey, Consumer<List<T>> handler) {
+        List<List<T>> split = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            split.add(new ArrayList<>());
+        }
+        for (T item : items) {
+            split.get(Math.floorMod(laneKey.apply(item).hashCode(), lanes)).add(item);
+        }
+        split.removeIf(List::isEmpty);
+
+        if (split.size() <= 1) {
+            split.forEach(handler);
+            return;
+        }
+
+        List<CompletableFuture<Void>> running = new ArrayList<>(split.size());
+        for (List<T> lane : split) {
+            running.add(CompletableFuture.runAsync(() -> handler.accept(lane), executor));
+        }
+        try {
+            CompletableFuture.allOf(running.toArray(CompletableFuture<?>[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
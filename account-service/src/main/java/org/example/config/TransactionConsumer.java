@@ -1,55 +1,64 @@
 package org.example.config;
 
-import org.example.model.TransactionEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.common.TransactionEvent;
 import org.example.service.AccountService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
+@ConditionalOnProperty(name = "ledger.engine.enabled", havingValue = "false", matchIfMissing = true)
 public class TransactionConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionConsumer.class);
 
     private final AccountService accountService;
+    private final OrderedLaneDispatcher laneDispatcher;
 
-    public TransactionConsumer(AccountService accountService) {
+    public TransactionConsumer(AccountService accountService, OrderedLaneDispatcher laneDispatcher) {
         this.accountService = accountService;
+        this.laneDispatcher = laneDispatcher;
     }
 
+    /**
+     * Each container thread owns a set of partitions and receives whole polled
+     * batches. The batch is split into lanes by account, and each lane is applied
+     * in its own DB transaction, in parallel; the container commits its offsets
+     * (AckMode.BATCH) only after every lane has committed.
+     */
     @KafkaListener(topics = "transaction-events", groupId = "account-service")
+    public void consumeBatch(List<ConsumerRecord<String, TransactionEvent>> records) {
+        List<TransactionEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, TransactionEvent> record : records) {
+            if (record.value() == null) {
+                logger.warn("Skipping empty transaction event at {}-{}@{}", record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            events.add(record.value());
+        }
+        consume(events);
+    }
+
     public void consume(TransactionEvent event) {
-        logger.info("Received transaction event: {}", event.getDestinationAccountId());
+        consume(List.of(event));
+    }
+
+    private void consume(List<TransactionEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        logger.info("Received {} transaction events", events.size());
 
         try {
-            if ("DEPOSIT".equals(event.getType())) {
-                accountService.deposit(event.getAccountId(), event.getAmount());
-                logger.info("Processed DEPOSIT of {} for account {}", event.getAmount(), event.getAccountId());
-            } else if ("WITHDRAW".equals(event.getType())) {
-                accountService.withdraw(event.getAccountId(), event.getAmount());
-                logger.info("Processed WITHDRAW of {} for account {}", event.getAmount(), event.getAccountId());
-            } else if ("TRANSFER".equals(event.getType())) {
-                if (event.getDestinationAccountId() == null) {
-                    logger.error("TRANSFER event missing destinationAccountId: {}", event);
-                    return;
-                }
-
-                // 1. Withdraw from source
-                accountService.withdraw(event.getAccountId(), event.getAmount());
-                logger.info("Processed WITHDRAW of {} from source account {}", event.getAmount(), event.getAccountId());
-
-                // 2. Deposit to destination
-                accountService.deposit(event.getDestinationAccountId(), event.getAmount());
-                logger.info("Processed DEPOSIT of {} to destination account {}", event.getAmount(), event.getDestinationAccountId());
-
-                logger.info("Processed TRANSFER of {} from account {} to account {}",
-                        event.getAmount(), event.getAccountId(), event.getDestinationAccountId());
-            } else {
-                logger.warn("Unknown transaction type: {}", event.getType());
-            }
+            laneDispatcher.dispatch(events, TransactionEvent::getAccountId, accountService::applyTransactionEvents);
         } catch (Exception e) {
-            logger.error("Error processing transaction event: {}", event, e);
+            logger.error("Error applying batch of {} transaction events", events.size(), e);
             throw e;
         }
     }
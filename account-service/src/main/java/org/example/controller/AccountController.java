@@ -1,22 +1,37 @@
 package org.example.controller;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import org.example.model.Account;
+import org.example.model.AccountPreflight;
+import org.example.model.CreateAccountRequest;
+import org.example.model.Hold;
+import org.example.model.HoldResult;
+import org.example.model.TransferRequest;
+import org.example.model.TransferResult;
 import org.example.service.AccountService;
+import org.example.service.HoldService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/accounts")
 public class AccountController {
 
+    private static final int MAX_IDS = 1000;
+    private static final int MAX_BATCH_SIZE = 10000;
+    private static final int MAX_TRANSFERS = 1000;
+
     private final AccountService accountService;
+    private final HoldService holdService;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, HoldService holdService) {
         this.accountService = accountService;
+        this.holdService = holdService;
     }
 
     @PostMapping
@@ -28,6 +43,22 @@ public class AccountController {
         return ResponseEntity.ok(accountService.createAccount(userId, initialBalance, currency));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Account>> createAccounts(
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " accounts per batch")
+            List<@Valid CreateAccountRequest> accounts) {
+
+        return ResponseEntity.ok(accountService.createAccounts(accounts));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<Map<Long, Account>> getAccounts(
+            @RequestParam @NotEmpty @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " ids per request")
+            List<@Min(1) Long> ids) {
+
+        return ResponseEntity.ok(accountService.getAccounts(ids));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Account> getAccount(
             @PathVariable @Min(1) Long id) {
@@ -58,6 +89,24 @@ public class AccountController {
         return ResponseEntity.ok(accountService.withdraw(id, amount));
     }
 
+    @PostMapping("/{id}/transfer")
+    public ResponseEntity<TransferResult> transfer(
+            @PathVariable @Min(1) Long id,
+            @RequestParam @Min(1) Long destinationAccountId,
+            @RequestParam @DecimalMin(value = "0.01", message = "Transfer amount must be greater than 0")
+            @Digits(integer = 16, fraction = 2, message = "Transfer amount must have at most 16 digits and 2 decimals") BigDecimal amount) {
+
+        return ResponseEntity.ok(accountService.transfer(id, destinationAccountId, amount));
+    }
+
+    @PostMapping("/transfers")
+    public ResponseEntity<List<TransferResult>> transferAll(
+            @RequestBody @NotEmpty @Size(max = MAX_TRANSFERS, message = "At most " + MAX_TRANSFERS + " transfers per request")
+            List<@Valid TransferRequest> transfers) {
+
+        return ResponseEntity.ok(accountService.transferAll(transfers));
+    }
+
     @GetMapping("/{id}/validate")
     public ResponseEntity<Boolean> validateAccount(
             @PathVariable @Min(1) Long id,
@@ -75,4 +124,37 @@ public class AccountController {
         boolean hasSufficientFunds = accountService.validateAccountFund(id, sum);
         return ResponseEntity.ok(hasSufficientFunds);
     }
+
+    @GetMapping("/{id}/preflight")
+    public ResponseEntity<AccountPreflight> preflight(
+            @PathVariable @Min(1) Long id,
+            @RequestParam @Min(1) Long userId,
+            @RequestParam @DecimalMin(value = "0.00", message = "Amount cannot be negative") BigDecimal amount,
+            @RequestParam(required = false) @Min(1) Long destinationAccountId) {
+
+        return ResponseEntity.ok(accountService.preflight(id, userId, amount, destinationAccountId));
+    }
+
+    @PostMapping("/{id}/holds")
+    public ResponseEntity<HoldResult> reserve(
+            @PathVariable @Min(1) Long id,
+            @RequestParam @DecimalMin(value = "0.01", message = "Hold amount must be greater than 0")
+            @Digits(integer = 16, fraction = 2, message = "Hold amount must have at most 16 digits and 2 decimals") BigDecimal amount,
+            @RequestParam(required = false) @Min(1) Long userId,
+            @RequestParam(required = false) @Min(1) Long destinationAccountId) {
+
+        return ResponseEntity.ok(holdService.reserve(id, userId, amount, destinationAccountId));
+    }
+
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<Hold> captureHold(
+            @PathVariable @Min(1) Long holdId) {
+        return ResponseEntity.ok(holdService.capture(holdId));
+    }
+
+    @PostMapping("/holds/{holdId}/release")
+    public ResponseEntity<Hold> releaseHold(
+            @PathVariable @Min(1) Long holdId) {
+        return ResponseEntity.ok(holdService.release(holdId));
+    }
 }
\ No newline at end of file
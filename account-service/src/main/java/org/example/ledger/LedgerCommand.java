@@ -0,0 +1,56 @@
+package org.example.ledger;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One unit of work for a shard. Amounts are in minor units (cents); the reply,
+ * when present, is completed on the shard thread.
+ */
+final class LedgerCommand {
+
+    enum Type {
+        /** Load or create an account with an absolute balance. */
+        REGISTER,
+        DEPOSIT,
+        WITHDRAW,
+        /** Debit the source here, then hand the credit to the destination's shard. */
+        TRANSFER,
+        /** Credit half of a transfer whose debit already succeeded on another shard. */
+        CREDIT,
+        /** Completes with the balance, or null for an unknown account. */
+        READ,
+        /** Completes once every earlier command on this shard has been applied. */
+        BARRIER,
+        /** Like BARRIER, but completes with the balances changed since the last snapshot. */
+        SNAPSHOT
+    }
+
+    final Type type;
+    final long accountId;
+    final long amount;
+    final long counterpartyId;
+    final long transactionId;
+    final CompletableFuture<Object> reply;
+
+    private LedgerCommand(Type type, long accountId, long amount, long counterpartyId, long transactionId,
+                          CompletableFuture<Object> reply) {
+        this.type = type;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.counterpartyId = counterpartyId;
+        this.transactionId = transactionId;
+        this.reply = reply;
+    }
+
+    static LedgerCommand mutation(Type type, long accountId, long amount, long counterpartyId, long transactionId) {
+        return new LedgerCommand(type, accountId, amount, counterpartyId, transactionId, null);
+    }
+
+    static LedgerCommand register(long accountId, long balance) {
+        return new LedgerCommand(Type.REGISTER, accountId, balance, 0, 0, null);
+    }
+
+    static LedgerCommand query(Type type, long accountId) {
+        return new LedgerCommand(type, accountId, 0, 0, 0, new CompletableFuture<>());
+    }
+}
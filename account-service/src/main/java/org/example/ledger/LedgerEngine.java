@@ -0,0 +1,281 @@
+package org.example.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.common.Money;
+import org.example.common.TransactionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional in-memory balance engine (ledger.engine.enabled=true). Accounts are
+ * sharded across single-writer threads that apply transaction events in memory,
+ * so balance reads and funds checks never touch Postgres.
+ *
+ * Durability comes from Kafka plus snapshots: the engine periodically writes the
+ * balances changed since the last snapshot and the next offset of every
+ * transaction-events partition, in one DB transaction. On restart it loads the
+ * accounts table and the consumer seeks to those offsets, so every event after
+ * the snapshot is replayed exactly once. While enabled the engine is the only
+ * writer of balances, and it assumes a single account-service instance.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.engine.enabled", havingValue = "true")
+public class LedgerEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerEngine.class);
+
+    private final LedgerShard[] shards;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long replyTimeoutMillis;
+    // Currency of every account, fixed at creation; codes are interned, so entries share them
+    private final Map<Long, String> currencies = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> appliedOffsets = new ConcurrentHashMap<>();
+    // Event submission holds the read lock; a snapshot takes the write lock to get a consistent cut
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    // Serializes scheduled and shutdown snapshots; guards unsavedBalances
+    private final ReentrantLock snapshotWriter = new ReentrantLock();
+    // Changes captured by a snapshot whose DB write failed, retried with the next one
+    private final Map<Long, Long> unsavedBalances = new HashMap<>();
+
+    public LedgerEngine(JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${ledger.engine.shards:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int shardCount,
+                        @Value("${ledger.engine.ring-capacity:65536}") int ringCapacity,
+                        @Value("${ledger.engine.expected-accounts:1000000}") int expectedAccounts,
+                        @Value("${ledger.engine.reply-timeout-ms:1000}") long replyTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.replyTimeoutMillis = replyTimeoutMillis;
+        this.shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, ringCapacity, expectedAccounts / shardCount, this::offerToShard);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        jdbcTemplate.query("SELECT id, balance, currency FROM accounts", rs -> {
+            long id = rs.getLong("id");
+            currencies.put(id, rs.getString("currency").intern());
+            shardFor(id).load(id, Money.toMinorUnits(rs.getBigDecimal("balance")));
+        });
+        jdbcTemplate.query("SELECT partition_id, next_offset FROM ledger_offsets",
+                rs -> { appliedOffsets.put(rs.getInt("partition_id"), rs.getLong("next_offset")); });
+        for (LedgerShard shard : shards) {
+            shard.start();
+        }
+        logger.info("Ledger engine started: {} accounts on {} shards, resuming from offsets {}",
+                currencies.size(), shards.length, appliedOffsets);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        snapshot();
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    /** Applies a polled batch and advances the offsets the next snapshot will record. */
+    public void apply(List<ConsumerRecord<String, TransactionEvent>> records) {
+        snapshotLock.readLock().lock();
+        try {
+            for (ConsumerRecord<String, TransactionEvent> record : records) {
+                if (record.value() != null) {
+                    submit(record.value());
+                }
+                appliedOffsets.merge(record.partition(), record.offset() + 1, Math::max);
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /** Routes one event to the shard owning its source account; returns once enqueued. */
+    public void submit(TransactionEvent event) {
+        long transactionId = event.getTransactionId() == null ? 0 : event.getTransactionId();
+        if (event.getAccountId() == null || event.getAmount() == null || event.getAmount().signum() <= 0) {
+            logger.warn("Rejected malformed transaction event {}", transactionId);
+            return;
+        }
+        long amount;
+        try {
+            amount = Money.toMinorUnits(event.getAmount());
+        } catch (ArithmeticException e) {
+            logger.warn("Rejected transaction event {}: amount {} has more than {} decimals", transactionId, event.getAmount(), Money.SCALE);
+            return;
+        }
+
+        long accountId = event.getAccountId();
+        LedgerCommand command;
+        switch (String.valueOf(event.getType())) {
+            case "DEPOSIT" -> command = LedgerCommand.mutation(LedgerCommand.Type.DEPOSIT, accountId, amount, 0, transactionId);
+            case "WITHDRAW" -> command = LedgerCommand.mutation(LedgerCommand.Type.WITHDRAW, accountId, amount, 0, transactionId);
+            case "TRANSFER" -> {
+                Long destination = event.getDestinationAccountId();
+                // Checked here so a debited transfer can never be left without a credit target
+                if (destination == null || !currencies.containsKey(destination) || destination == accountId) {
+                    logger.warn("Rejected transfer {}: invalid destination account {}", transactionId, destination);
+                    return;
+                }
+                if (!currencies.get(destination).equals(currencies.get(accountId))) {
+                    logger.warn("Rejected transfer {}: currency of account {} differs from account {}", transactionId, destination, accountId);
+                    return;
+                }
+                command = LedgerCommand.mutation(LedgerCommand.Type.TRANSFER, accountId, amount, destination, transactionId);
+            }
+            default -> {
+                logger.warn("Rejected transaction event {}: unknown type {}", transactionId, event.getType());
+                return;
+            }
+        }
+        enqueue(command);
+    }
+
+    public void register(long accountId, Money balance) {
+        currencies.put(accountId, balance.getCurrency().intern());
+        enqueue(LedgerCommand.register(accountId, balance.getMinorUnits()));
+    }
+
+    public Optional<BigDecimal> balance(long accountId) {
+        if (!currencies.containsKey(accountId)) {
+            return Optional.empty();
+        }
+        LedgerCommand read = LedgerCommand.query(LedgerCommand.Type.READ, accountId);
+        enqueue(read);
+        Long minor = (Long) await(read.reply);
+        return Optional.ofNullable(minor).map(Money::fromMinorUnits);
+    }
+
+    public Map<Integer, Long> appliedOffsets() {
+        return Map.copyOf(appliedOffsets);
+    }
+
+    /**
+     * Takes a consistent cut and persists it. Two barrier rounds run while event
+     * submission is paused: after the first, every submitted event has been applied
+     * and any cross-shard credit it produced is queued; the second (which also
+     * collects the changed balances) lands behind those credits.
+     */
+    @Scheduled(fixedDelayString = "${ledger.engine.snapshot-interval-ms:5000}")
+    public void snapshot() {
+        snapshotWriter.lock();
+        try {
+            takeSnapshot();
+        } finally {
+            snapshotWriter.unlock();
+        }
+    }
+
+    private void takeSnapshot() {
+        List<CompletableFuture<Object>> snapshots;
+        Map<Integer, Long> offsets;
+        snapshotLock.writeLock().lock();
+        try {
+            awaitAll(broadcast(LedgerCommand.Type.BARRIER));
+            snapshots = broadcast(LedgerCommand.Type.SNAPSHOT);
+            awaitAll(snapshots);
+            offsets = Map.copyOf(appliedOffsets);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+
+        for (CompletableFuture<Object> snapshot : snapshots) {
+            long[][] changed = (long[][]) snapshot.join();
+            for (int i = 0; i < changed[0].length; i++) {
+                unsavedBalances.put(changed[0][i], changed[1][i]);
+            }
+        }
+        if (unsavedBalances.isEmpty() && offsets.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> balanceRows = new ArrayList<>(unsavedBalances.size());
+        unsavedBalances.forEach((id, minor) -> balanceRows.add(new Object[]{Money.fromMinorUnits(minor), id}));
+        List<Object[]> offsetRows = new ArrayList<>(offsets.size());
+        offsets.forEach((partition, next) -> offsetRows.add(new Object[]{partition, next}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("UPDATE accounts SET balance = ? WHERE id = ?", balanceRows);
+                jdbcTemplate.batchUpdate("INSERT INTO ledger_offsets (partition_id, next_offset) VALUES (?, ?) "
+                        + "ON CONFLICT (partition_id) DO UPDATE SET next_offset = EXCLUDED.next_offset", offsetRows);
+            });
+            logger.info("Ledger snapshot saved: {} balances, offsets {}", balanceRows.size(), offsets);
+            unsavedBalances.clear();
+        } catch (RuntimeException e) {
+            logger.error("Ledger snapshot failed, {} balances kept for the next attempt", unsavedBalances.size(), e);
+        }
+    }
+
+    private List<CompletableFuture<Object>> broadcast(LedgerCommand.Type type) {
+        List<CompletableFuture<Object>> replies = new ArrayList<>(shards.length);
+        for (LedgerShard shard : shards) {
+            LedgerCommand command = LedgerCommand.query(type, 0);
+            enqueue(shard, command);
+            replies.add(command.reply);
+        }
+        return replies;
+    }
+
+    private void awaitAll(List<CompletableFuture<Object>> replies) {
+        for (CompletableFuture<Object> reply : replies) {
+            await(reply);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> reply) {
+        try {
+            return reply.get(replyTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for the ledger engine", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Ledger engine did not answer", e);
+        }
+    }
+
+    private void enqueue(LedgerCommand command) {
+        enqueue(shardFor(command.accountId), command);
+    }
+
+    // Backpressure: a full ring makes the producer wait rather than drop the command
+    private void enqueue(LedgerShard shard, LedgerCommand command) {
+        while (!shard.offer(command)) {
+            LockSupport.parkNanos(10_000);
+        }
+    }
+
+    // Shard threads must never block on each other, so cross-shard credits only try once
+    private boolean offerToShard(LedgerCommand command) {
+        return shardFor(command.accountId).offer(command);
+    }
+
+    private LedgerShard shardFor(long accountId) {
+        return shards[(int) Math.floorMod(accountId * 0x9E3779B97F4A7C15L >>> 32, (long) shards.length)];
+    }
+}
@@ -0,0 +1,176 @@
+package org.example.ledger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Single writer for a slice of the accounts. Only this shard's thread touches its
+ * balances, so applying a command needs no locks; producers hand commands over
+ * through the {@link CommandRing}.
+ */
+final class LedgerShard implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerShard.class);
+    private static final int SPINS_BEFORE_PARK = 1_000;
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private final int index;
+    private final CommandRing<LedgerCommand> ring;
+    private final LongLongMap balances;
+    private final LongLongMap dirty;
+    private final Predicate<LedgerCommand> crossShardRouter;
+    private final ArrayDeque<LedgerCommand> outbound = new ArrayDeque<>();
+
+    private volatile Thread thread;
+    private volatile boolean sleeping;
+    private volatile boolean running = true;
+
+    LedgerShard(int index, int ringCapacity, int expectedAccounts, Predicate<LedgerCommand> crossShardRouter) {
+        this.index = index;
+        this.ring = new CommandRing<>(ringCapacity);
+        this.balances = new LongLongMap(expectedAccounts);
+        this.dirty = new LongLongMap(1024);
+        this.crossShardRouter = crossShardRouter;
+    }
+
+    /** Startup only, before the thread starts. */
+    void load(long accountId, long balance) {
+        balances.put(accountId, balance);
+    }
+
+    /** Non-blocking hand-off; false when the ring is full. */
+    boolean offer(LedgerCommand command) {
+        if (!ring.offer(command)) {
+            return false;
+        }
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    void start() {
+        Thread shardThread = new Thread(this, "ledger-shard-" + index);
+        thread = shardThread;
+        shardThread.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(10_000);
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (running) {
+            flushOutbound();
+            LedgerCommand command = ring.poll();
+            if (command != null) {
+                idle = 0;
+                apply(command);
+                continue;
+            }
+            if (++idle < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+                continue;
+            }
+            sleeping = true;
+            if (ring.isEmpty()) {
+                // Bounded park as a backstop for a wake-up racing the flag
+                LockSupport.parkNanos(1_000_000);
+            }
+            sleeping = false;
+            idle = 0;
+        }
+    }
+
+    private void apply(LedgerCommand command) {
+        try {
+            switch (command.type) {
+                case REGISTER -> write(command.accountId, command.amount);
+                case DEPOSIT -> {
+                    long balance = balances.get(command.accountId, MISSING);
+                    if (balance == MISSING) {
+                        reject(command, "Account not found");
+                    } else {
+                        write(command.accountId, Math.addExact(balance, command.amount));
+                    }
+                }
+                case WITHDRAW, TRANSFER -> {
+                    long balance = balances.get(command.accountId, MISSING);
+                    if (balance == MISSING) {
+                        reject(command, "Account not found");
+                    } else if (balance < command.amount) {
+                        reject(command, "Insufficient balance");
+                    } else {
+                        write(command.accountId, balance - command.amount);
+                        if (command.type == LedgerCommand.Type.TRANSFER) {
+                            outbound.add(LedgerCommand.mutation(LedgerCommand.Type.CREDIT,
+                                    command.counterpartyId, command.amount, command.accountId, command.transactionId));
+                            flushOutbound();
+                        }
+                    }
+                }
+                case CREDIT -> {
+                    long balance = balances.get(command.accountId, MISSING);
+                    // Destinations are checked against the known accounts before a transfer is routed
+                    write(command.accountId, Math.addExact(balance == MISSING ? 0 : balance, command.amount));
+                }
+                case READ -> {
+                    long balance = balances.get(command.accountId, MISSING);
+                    command.reply.complete(balance == MISSING ? null : balance);
+                }
+                case BARRIER -> {
+                    drainOutbound();
+                    command.reply.complete(null);
+                }
+                case SNAPSHOT -> {
+                    drainOutbound();
+                    long[][] changed = new long[2][dirty.size()];
+                    int[] i = {0};
+                    dirty.forEach((accountId, ignored) -> {
+                        changed[0][i[0]] = accountId;
+                        changed[1][i[0]++] = balances.get(accountId, 0);
+                    });
+                    dirty.clear();
+                    command.reply.complete(changed);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Shard {} failed to apply {} for account {}", index, command.type, command.accountId, e);
+            if (command.reply != null) {
+                command.reply.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void write(long accountId, long balance) {
+        balances.put(accountId, balance);
+        dirty.put(accountId, 1);
+    }
+
+    private void reject(LedgerCommand command, String reason) {
+        logger.warn("Rejected transaction event {} ({}) for account {}: {}",
+                command.transactionId, command.type, command.accountId, reason);
+    }
+
+    private void flushOutbound() {
+        while (!outbound.isEmpty() && crossShardRouter.test(outbound.peek())) {
+            outbound.poll();
+        }
+    }
+
+    // A barrier must not overtake credits this shard has already produced
+    private void drainOutbound() {
+        while (!outbound.isEmpty()) {
+            flushOutbound();
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -16,7 +16,8 @@ import java.math.BigDecimal;
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "User ID is required")
@@ -29,11 +30,20 @@ public class Account {
     @Column(nullable = false)
     private BigDecimal balance;
 
+    // Held for pending withdrawals/transfers; available balance = balance - reserved
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "numeric(38,2) default 0")
+    private BigDecimal reserved = BigDecimal.ZERO;
+
     @NotBlank(message = "Currency is required")
     @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a 3-letter ISO code (e.g., USD, EUR)")
     @Column(nullable = false)
     private String currency;
 
+    public BigDecimal getAvailableBalance() {
+        return balance.subtract(reserved);
+    }
+
     // Legacy method — consider deprecating or renaming
     public Long getUser() {
         return userId;
@@ -0,0 +1,22 @@
+package org.example.model;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Payload of the account cache invalidation topic: which cached accounts and
+ * per-user account lists another instance must drop. Carries ids only, never
+ * balances, so a late or reordered message can't install stale data.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountCacheInvalidation {
+
+    // Instance that made the change; it skips its own messages
+    private String origin;
+    private List<Long> accountIds;
+    private List<Long> userIds;
+}
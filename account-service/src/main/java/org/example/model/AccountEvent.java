@@ -0,0 +1,24 @@
+package org.example.model;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Payload of the {@code account-events} topic, keyed by account id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountEvent {
+
+    public static final String CREATED = "CREATED";
+    public static final String DEPOSITED = "DEPOSITED";
+    public static final String WITHDRAWN = "WITHDRAWN";
+
+    private String type;
+    private Long accountId;
+    private Long userId;
+    private BigDecimal amount;
+}
@@ -0,0 +1,25 @@
+package org.example.model;
+
+import lombok.*;
+
+/**
+ * Answers every pre-transaction check transaction-service needs
+ * (ownership, funds, destination) from a single lookup.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountPreflight {
+
+    private Long accountId;
+
+    private boolean owner;
+
+    private boolean sufficientFunds;
+
+    private Long destinationAccountId;
+
+    private boolean destinationExists;
+}
@@ -0,0 +1,26 @@
+package org.example.model;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateAccountRequest {
+
+    @NotNull(message = "User ID is required")
+    @Min(value = 1, message = "User ID must be positive")
+    private Long userId;
+
+    @NotNull(message = "Initial balance is required")
+    @DecimalMin(value = "0.00", message = "Initial balance cannot be negative")
+    private BigDecimal initialBalance;
+
+    @NotNull(message = "Currency is required")
+    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a 3-letter ISO code (e.g., USD, EUR)")
+    private String currency;
+}
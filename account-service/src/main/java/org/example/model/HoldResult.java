@@ -0,0 +1,32 @@
+package org.example.model;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Answer to a reserve request: the hold, or why none was placed. Covers the
+ * ownership and destination checks too, so one call replaces preflight.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HoldResult {
+
+    public static final String HELD = "HELD";
+    /** Ledger engine mode: the funds were there but nothing was reserved; the engine re-checks on apply. */
+    public static final String FUNDS_AVAILABLE = "FUNDS_AVAILABLE";
+    public static final String ACCOUNT_NOT_FOUND = "ACCOUNT_NOT_FOUND";
+    public static final String NOT_OWNER = "NOT_OWNER";
+    public static final String DESTINATION_NOT_FOUND = "DESTINATION_NOT_FOUND";
+    public static final String CURRENCY_MISMATCH = "CURRENCY_MISMATCH";
+    public static final String INSUFFICIENT_FUNDS = "INSUFFICIENT_FUNDS";
+
+    private String status;
+
+    private Long holdId;
+
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,24 @@
+package org.example.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Next transaction-events offset per partition covered by the ledger engine's
+ * last balance snapshot. Written in the same DB transaction as the snapshot.
+ */
+@Entity
+@Table(name = "ledger_offsets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerOffset {
+
+    @Id
+    private Integer partitionId;
+
+    @Column(nullable = false)
+    private Long nextOffset;
+}
@@ -0,0 +1,30 @@
+package org.example.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ledger entry for a transaction event that has already been handled, whether it
+ * moved money or was rejected. Written in the same DB transaction as the balance
+ * change, so a redelivered event is recognised and skipped.
+ */
+@Entity
+@Table(name = "processed_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProcessedEvent {
+
+    @Id
+    private Long transactionId;
+
+    @Column(nullable = false)
+    private boolean applied;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,27 @@
+package org.example.model;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferRequest {
+
+    @NotNull(message = "Source account ID is required")
+    @Min(value = 1, message = "Source account ID must be positive")
+    private Long fromAccountId;
+
+    @NotNull(message = "Destination account ID is required")
+    @Min(value = 1, message = "Destination account ID must be positive")
+    private Long toAccountId;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Transfer amount must be greater than 0")
+    @Digits(integer = 16, fraction = 2, message = "Transfer amount must have at most 16 digits and 2 decimals")
+    private BigDecimal amount;
+}
@@ -0,0 +1,31 @@
+package org.example.model;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of one transfer. Balances are the ones left after the whole call
+ * (for a bulk call, after every transfer in it); a rejected transfer carries the reason.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferResult {
+
+    private Long fromAccountId;
+
+    private Long toAccountId;
+
+    private BigDecimal amount;
+
+    private boolean completed;
+
+    private String reason;
+
+    private BigDecimal fromBalance;
+
+    private BigDecimal toBalance;
+}
@@ -1,9 +1,50 @@
 package org.example.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
     List<Account> findByUserId(Long userId);
+
+    // Single-statement balance mutations: the database applies the change atomically and
+    // hands back the updated row, so there is no read-modify-write window to lose updates in.
+    // Native UPDATE ... RETURNING is a result-producing query, hence no @Modifying, but it
+    // must not inherit the repository's read-only transaction.
+    @Transactional
+    @Query(value = "UPDATE accounts SET balance = balance + :amount WHERE id = :id RETURNING *", nativeQuery = true)
+    Optional<Account> addToBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Transactional
+    @Query(value = "UPDATE accounts SET balance = balance - :amount WHERE id = :id AND balance - reserved >= :amount RETURNING *",
+            nativeQuery = true)
+    Optional<Account> subtractFromBalanceIfSufficient(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    // Holds: reserving checks and claims available funds (balance - reserved) in one statement
+    @Query(value = "UPDATE accounts SET reserved = reserved + :amount WHERE id = :id AND balance - reserved >= :amount RETURNING *",
+            nativeQuery = true)
+    Optional<Account> reserveIfAvailable(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("update Account a set a.reserved = a.reserved - :amount where a.id = :id")
+    int releaseReserved(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :amount, a.reserved = a.reserved - :amount where a.id = :id")
+    int captureReserved(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    // Locks in id order, so two batches sharing accounts can't deadlock on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids order by a.id")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,30 @@
+package org.example.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.model.Hold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    List<Hold> findByStatus(String status);
+
+    // Account of a hold without loading the entity, which resolveIfHeld would then hand back stale
+    @Query("select h.accountId from Hold h where h.id = :id")
+    Optional<Long> findAccountIdById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Hold h where h.id in :ids order by h.id")
+    List<Hold> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Only an active hold can be resolved, so capture, release and expiry can race safely
+    @Query(value = "UPDATE holds SET status = :status, resolved_at = now() WHERE id = :id AND status = 'HELD' RETURNING *",
+            nativeQuery = true)
+    Optional<Hold> resolveIfHeld(@Param("id") Long id, @Param("status") String status);
+}
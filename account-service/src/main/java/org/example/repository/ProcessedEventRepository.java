@@ -0,0 +1,19 @@
+package org.example.repository;
+
+import org.example.model.ProcessedEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, Long> {
+
+    @Query("select p.transactionId from ProcessedEvent p where p.transactionId in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.transactionId from ProcessedEvent p where p.transactionId > :after order by p.transactionId")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+}
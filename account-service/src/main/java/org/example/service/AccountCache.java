@@ -0,0 +1,176 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.model.Account;
+import org.example.model.AccountCacheInvalidation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Local read-through cache of accounts by id, and of account ids by owner.
+ * Writes on this instance update it directly; other instances are told to
+ * drop the affected entries through a small ids-only message on Kafka. Entries
+ * also expire {@code accounts.cache.ttl} after they were written, which bounds
+ * how long a lost or late invalidation can leave a stale balance visible.
+ */
+@Component
+public class AccountCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountCache.class);
+
+    private final Cache<Long, Account> accounts;
+    private final Cache<Long, List<Long>> accountIdsByUser;
+    private final KafkaTemplate<String, AccountCacheInvalidation> invalidationTemplate;
+    private final String invalidationTopic;
+    private final String origin = UUID.randomUUID().toString();
+
+    public AccountCache(MeterRegistry meterRegistry,
+                        ObjectProvider<KafkaTemplate<String, AccountCacheInvalidation>> invalidationTemplate,
+                        @Value("${accounts.cache.maximum-size:100000}") long maximumSize,
+                        @Value("${accounts.cache.ttl:PT1M}") Duration ttl,
+                        @Value("${accounts.cache.invalidation.topic:account-cache-invalidations}") String invalidationTopic) {
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.accountIdsByUser = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidationTemplate = invalidationTemplate.getIfAvailable();
+        this.invalidationTopic = invalidationTopic;
+        CaffeineCacheMetrics.monitor(meterRegistry, accounts, "accounts");
+        CaffeineCacheMetrics.monitor(meterRegistry, accountIdsByUser, "accountsByUser");
+    }
+
+    public Optional<Account> get(Long accountId, Function<Long, Optional<Account>> loader) {
+        return Optional.ofNullable(accounts.get(accountId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * The user's accounts, in the order the loader first returned them. The list
+     * only holds ids; the accounts themselves come from (and refill) the by-id cache.
+     */
+    public List<Account> getByUser(Long userId,
+                                   Function<Long, List<Account>> loader,
+                                   Function<Collection<Long>, List<Account>> bulkLoader) {
+        List<Long> ids = accountIdsByUser.get(userId, id -> {
+            List<Account> loaded = loader.apply(id);
+            loaded.forEach(account -> accounts.put(account.getId(), account));
+            return loaded.stream().map(Account::getId).toList();
+        });
+        Map<Long, Account> found = getAll(ids, bulkLoader);
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /** Write-through for a new account: cached, and appended to its owner's list. */
+    public void created(Account account) {
+        accounts.put(account.getId(), account);
+        accountIdsByUser.asMap().computeIfPresent(account.getUserId(), (userId, ids) -> {
+            List<Long> appended = new ArrayList<>(ids);
+            appended.add(account.getId());
+            return List.copyOf(appended);
+        });
+        broadcast(List.of(account.getId()), List.of(account.getUserId()));
+    }
+
+    /**
+     * Bulk counterpart of {@link #get}: cached accounts plus one loader call for
+     * all the misses. Ids that don't exist are absent from the map.
+     */
+    public Map<Long, Account> getAll(Collection<Long> accountIds, Function<Collection<Long>, List<Account>> bulkLoader) {
+        return accounts.getAll(accountIds, missing -> bulkLoader.apply(new ArrayList<>(missing)).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity())));
+    }
+
+    /**
+     * New accounts in bulk. They aren't cached (a batch import would only flush
+     * the hot set), but their owners' id lists are dropped here and everywhere.
+     */
+    public void createdAll(Collection<Account> created) {
+        List<Long> userIds = created.stream().map(Account::getUserId).distinct().toList();
+        accountIdsByUser.invalidateAll(userIds);
+        broadcast(List.of(), userIds);
+    }
+
+    /** Write-through for rows the database handed back after a committed change. */
+    public void updated(Collection<Account> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        changed.forEach(account -> accounts.put(account.getId(), account));
+        broadcast(changed.stream().map(Account::getId).toList(), List.of());
+    }
+
+    public void updated(Account account) {
+        updated(List.of(account));
+    }
+
+    /** Drops the accounts here and everywhere once the current transaction commits. */
+    public void evictAfterCommit(Collection<Long> accountIds) {
+        List<Long> ids = List.copyOf(accountIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(ids, List.of());
+            broadcast(ids, List.of());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(ids, List.of());
+                broadcast(ids, List.of());
+            }
+        });
+    }
+
+    /** Applies another instance's invalidation. */
+    public void onInvalidation(AccountCacheInvalidation invalidation) {
+        if (origin.equals(invalidation.getOrigin())) {
+            return;
+        }
+        evict(invalidation.getAccountIds(), invalidation.getUserIds());
+    }
+
+    private void evict(Collection<Long> accountIds, Collection<Long> userIds) {
+        if (accountIds != null) {
+            accounts.invalidateAll(accountIds);
+        }
+        if (userIds != null) {
+            accountIdsByUser.invalidateAll(userIds);
+        }
+    }
+
+    private void broadcast(List<Long> accountIds, List<Long> userIds) {
+        if (invalidationTemplate == null) {
+            return;
+        }
+        invalidationTemplate.send(invalidationTopic, new AccountCacheInvalidation(origin, accountIds, userIds))
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        logger.warn("Could not publish cache invalidation for accounts {}; peers will expire them", accountIds, e);
+                    }
+                });
+    }
+}
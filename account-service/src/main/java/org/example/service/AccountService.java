@@ -1,24 +1,67 @@
 package org.example.service;
 
+import org.example.common.Money;
+import org.example.common.TransactionEvent;
+import org.example.ledger.LedgerEngine;
 import org.example.model.Account;
+import org.example.model.AccountEvent;
+import org.example.model.AccountPreflight;
+import org.example.model.CreateAccountRequest;
+import org.example.model.Hold;
+import org.example.model.TransferRequest;
+import org.example.model.TransferResult;
 import org.example.repository.AccountRepository;
+import org.example.repository.HoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AccountService {
 
     private final AccountRepository accountRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final HoldRepository holdRepository;
+    private final AccountCache accountCache;
+    private final KafkaTemplate<String, AccountEvent> kafkaTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProcessedEventLedger processedEventLedger;
+    // Present only in ledger engine mode, where balances live in memory
+    private final LedgerEngine ledgerEngine;
+    private static final Logger logger = LoggerFactory.getLogger(AccountService.class);
 
     public AccountService(AccountRepository accountRepository,
-                          KafkaTemplate<String, String> kafkaTemplate) {
+                          HoldRepository holdRepository,
+                          AccountCache accountCache,
+                          KafkaTemplate<String, AccountEvent> kafkaTemplate,
+                          JdbcTemplate jdbcTemplate,
+                          ProcessedEventLedger processedEventLedger,
+                          ObjectProvider<LedgerEngine> ledgerEngine) {
         this.accountRepository = accountRepository;
+        this.holdRepository = holdRepository;
+        this.accountCache = accountCache;
         this.kafkaTemplate = kafkaTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.processedEventLedger = processedEventLedger;
+        this.ledgerEngine = ledgerEngine.getIfAvailable();
     }
 
     public Account createAccount(Long userId, BigDecimal initialBalance, String currency) {
@@ -28,40 +71,89 @@ public class AccountService {
                 .currency(currency)
                 .build();
         Account saved = accountRepository.save(account);
+        if (ledgerEngine != null) {
+            ledgerEngine.register(saved.getId(), Money.of(saved.getBalance(), saved.getCurrency()));
+        }
+        accountCache.created(saved);
 
         // publish Kafka event
-        kafkaTemplate.send("account-events", "Created account for userId " + userId);
+        publish(new AccountEvent(AccountEvent.CREATED, saved.getId(), userId, initialBalance));
         return saved;
     }
 
+    /**
+     * Creates the accounts in one transaction. Ids come from the pooled sequence,
+     * so Hibernate sends the inserts as JDBC batches; the CREATED events go out
+     * back-to-back once it commits, so the producer ships them in a few large
+     * batches instead of one request per account.
+     */
+    @Transactional
+    public List<Account> createAccounts(List<CreateAccountRequest> requests) {
+        List<Account> created = accountRepository.saveAll(requests.stream()
+                .map(request -> Account.builder()
+                        .userId(request.getUserId())
+                        .balance(request.getInitialBalance())
+                        .currency(request.getCurrency())
+                        .build())
+                .toList());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (ledgerEngine != null) {
+                    created.forEach(account -> ledgerEngine.register(account.getId(), Money.of(account.getBalance(), account.getCurrency())));
+                }
+                accountCache.createdAll(created);
+                created.forEach(account -> publish(new AccountEvent(
+                        AccountEvent.CREATED, account.getId(), account.getUserId(), account.getBalance())));
+            }
+        });
+        logger.info("Created {} accounts in one batch", created.size());
+        return created;
+    }
+
     public Optional<Account> getAccount(Long accountId) {
-        return accountRepository.findById(accountId);
+        return accountCache.get(accountId, accountRepository::findById).map(this::withLiveBalance);
+    }
+
+    /** The accounts that exist among the ids, keyed by id; cache misses are read with one IN query. */
+    public Map<Long, Account> getAccounts(Collection<Long> accountIds) {
+        Map<Long, Account> found = accountCache.getAll(accountIds, accountRepository::findAllById);
+        Map<Long, Account> result = new LinkedHashMap<>();
+        for (Long id : accountIds) {
+            Account account = found.get(id);
+            if (account != null) {
+                result.put(id, withLiveBalance(account));
+            }
+        }
+        return result;
     }
 
     public List<Account> getAccountsByUser(Long userId) {
-        return accountRepository.findByUserId(userId);
+        return accountCache.getByUser(userId, accountRepository::findByUserId, accountRepository::findAllById).stream()
+                .map(this::withLiveBalance)
+                .toList();
     }
 
     public Account deposit(Long accountId, BigDecimal amount) {
-        Account account = accountRepository.findById(accountId)
+        requireDatabaseLedger();
+        Account saved = accountRepository.addToBalance(accountId, amount)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
-        account.setBalance(account.getBalance().add(amount));
-        Account saved = accountRepository.save(account);
+        accountCache.updated(saved);
 
-        kafkaTemplate.send("account-events", "Deposited " + amount + " to account " + accountId);
+        publish(new AccountEvent(AccountEvent.DEPOSITED, accountId, saved.getUserId(), amount));
         return saved;
     }
 
     public Account withdraw(Long accountId, BigDecimal amount) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient balance");
-        }
-        account.setBalance(account.getBalance().subtract(amount));
-        Account saved = accountRepository.save(account);
+        requireDatabaseLedger();
+        Account saved = accountRepository.subtractFromBalanceIfSufficient(accountId, amount)
+                .orElseThrow(() -> accountRepository.existsById(accountId)
+                        ? new RuntimeException("Insufficient balance")
+                        : new RuntimeException("Account not found"));
+        accountCache.updated(saved);
 
-        kafkaTemplate.send("account-events", "Withdrew " + amount + " from account " + accountId);
+        publish(new AccountEvent(AccountEvent.WITHDRAWN, accountId, saved.getUserId(), amount));
         return saved;
     }
 
@@ -72,8 +164,384 @@ public class AccountService {
     }
 
     public boolean validateAccountFund(Long id,BigDecimal sum) {
+        if (ledgerEngine != null) {
+            return ledgerEngine.balance(id)
+                    .map(balance -> balance.compareTo(sum) >= 0)
+                    .orElse(false);
+        }
         return accountRepository.findById(id)
-                .map(account -> account.getBalance().compareTo(sum)>=0)
+                .map(account -> account.getAvailableBalance().compareTo(sum)>=0)
                 .orElse(false);
     }
+
+    /**
+     * Ownership, funds and destination checks for one transaction, answered
+     * from a single multi-row lookup of the source and destination accounts.
+     */
+    public AccountPreflight preflight(Long accountId, Long userId, BigDecimal amount, Long destinationAccountId) {
+        List<Long> ids = destinationAccountId == null
+                ? List.of(accountId)
+                : List.of(accountId, destinationAccountId);
+        Map<Long, Account> accounts = accountRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity(), (a, b) -> a));
+
+        Account source = accounts.get(accountId);
+        return AccountPreflight.builder()
+                .accountId(accountId)
+                .owner(source != null && source.getUserId().equals(userId))
+                .sufficientFunds(source != null && withLiveBalance(source).getAvailableBalance().compareTo(amount) >= 0)
+                .destinationAccountId(destinationAccountId)
+                .destinationExists(destinationAccountId != null && accounts.containsKey(destinationAccountId))
+                .build();
+    }
+
+    /**
+     * Applies one polled batch of transaction events in a single DB transaction
+     * (see {@link #applyLocked}). Events already in the processed-events ledger are
+     * skipped, and the outcome of every new one is recorded in the same
+     * transaction, so redelivery after a rebalance or retry is harmless.
+     */
+    @Transactional
+    public int applyTransactionEvents(List<TransactionEvent> batch) {
+        requireDatabaseLedger();
+        List<TransactionEvent> events = processedEventLedger.retainUnprocessed(batch);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        LockedBatch result = applyLocked(events);
+
+        Map<Long, Boolean> outcomes = new LinkedHashMap<>();
+        int appliedCount = 0;
+        for (int i = 0; i < events.size(); i++) {
+            TransactionEvent event = events.get(i);
+            String rejection = result.rejections.get(i);
+            if (rejection == null) {
+                appliedCount++;
+            } else {
+                logger.warn("Rejected transaction event {} ({}): {}", event.getTransactionId(), event.getType(), rejection);
+            }
+            if (event.getTransactionId() != null) {
+                outcomes.put(event.getTransactionId(), rejection == null);
+            }
+        }
+        processedEventLedger.record(outcomes);
+
+        logger.info("Applied {} of {} transaction events", appliedCount, events.size());
+        return appliedCount;
+    }
+
+    /**
+     * Moves money between two accounts in one DB transaction: both rows are
+     * locked lower id first, so opposing transfers (A to B, B to A) queue
+     * behind each other instead of deadlocking.
+     */
+    @Transactional
+    public TransferResult transfer(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        requireDatabaseLedger();
+        TransferResult result = transferAll(List.of(new TransferRequest(fromAccountId, toAccountId, amount))).get(0);
+        if (!result.isCompleted()) {
+            throw new RuntimeException(result.getReason());
+        }
+        return result;
+    }
+
+    /**
+     * Bulk transfers in one DB transaction, applied in request order. A transfer
+     * that would overdraw (given the ones before it) is rejected on its own; the
+     * rest still go through.
+     */
+    @Transactional
+    public List<TransferResult> transferAll(List<TransferRequest> transfers) {
+        requireDatabaseLedger();
+        List<TransactionEvent> events = new ArrayList<>(transfers.size());
+        for (TransferRequest transfer : transfers) {
+            events.add(new TransactionEvent(null, transfer.getFromAccountId(), transfer.getAmount(),
+                    "TRANSFER", null, transfer.getToAccountId()));
+        }
+        LockedBatch batch = applyLocked(events);
+
+        List<TransferResult> results = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequest transfer = transfers.get(i);
+            results.add(TransferResult.builder()
+                    .fromAccountId(transfer.getFromAccountId())
+                    .toAccountId(transfer.getToAccountId())
+                    .amount(transfer.getAmount())
+                    .completed(batch.rejections.get(i) == null)
+                    .reason(batch.rejections.get(i))
+                    .fromBalance(batch.balance(transfer.getFromAccountId()))
+                    .toBalance(batch.balance(transfer.getToAccountId()))
+                    .build());
+        }
+        return results;
+    }
+
+    /**
+     * The shared write path for event batches and transfers; must run inside a
+     * transaction. Every account the batch touches is locked once, in id order,
+     * then any holds the events name; events are replayed against those balances
+     * in order so one that would overdraw is rejected exactly as it would be one
+     * at a time; then each account's net delta is written with one conditional
+     * UPDATE, all sent as a single JDBC batch. Account events go out only after
+     * the commit.
+     */
+    private LockedBatch applyLocked(List<TransactionEvent> events) {
+        Set<Long> ids = new TreeSet<>();
+        Set<Long> holdIds = new TreeSet<>();
+        for (TransactionEvent event : events) {
+            if (event.getAccountId() != null) {
+                ids.add(event.getAccountId());
+            }
+            if (event.getDestinationAccountId() != null) {
+                ids.add(event.getDestinationAccountId());
+            }
+            if (event.getHoldId() != null) {
+                holdIds.add(event.getHoldId());
+            }
+        }
+
+        LockedState state = new LockedState();
+        accountRepository.findAllByIdForUpdate(ids).forEach(account -> {
+            state.accounts.put(account.getId(), account);
+            state.balances.put(account.getId(), new RunningBalance(account));
+        });
+        if (!holdIds.isEmpty()) {
+            holdRepository.findAllByIdForUpdate(holdIds).stream()
+                    .filter(hold -> Hold.HELD.equals(hold.getStatus()))
+                    .forEach(hold -> state.holds.put(hold.getId(), hold));
+        }
+
+        List<String> rejections = new ArrayList<>(events.size());
+        for (TransactionEvent event : events) {
+            rejections.add(applyInMemory(event, state));
+        }
+
+        Set<Long> touched = new TreeSet<>();
+        state.balances.forEach((id, running) -> {
+            if (running.touched) {
+                touched.add(id);
+            }
+        });
+        List<Object[]> updates = new ArrayList<>(touched.size());
+        for (Long id : touched) {
+            RunningBalance running = state.balances.get(id);
+            if (running.delta != 0 || running.reservedDelta != 0) {
+                BigDecimal balanceChange = Money.fromMinorUnits(running.delta);
+                BigDecimal reservedChange = Money.fromMinorUnits(running.reservedDelta);
+                updates.add(new Object[]{balanceChange, reservedChange, id, balanceChange, reservedChange});
+            }
+        }
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE accounts SET balance = balance + ?, reserved = reserved + ? "
+                        + "WHERE id = ? AND balance + ? - (reserved + ?) >= 0", updates);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                // Can't happen while the rows are locked; roll back and let the batch be retried
+                throw new IllegalStateException("Net delta would overdraw account " + updates.get(i)[2]);
+            }
+        }
+        if (!state.captured.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE holds SET status = '" + Hold.CAPTURED + "', resolved_at = now() WHERE id = ?",
+                    state.captured.stream().map(id -> new Object[]{id}).toList());
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accountCache.updated(state.changedAccounts(touched));
+                state.applied.forEach(AccountService.this::publish);
+            }
+        });
+        return new LockedBatch(rejections, state.balances);
+    }
+
+    private String applyInMemory(TransactionEvent event, LockedState state) {
+        Long source = event.getAccountId();
+        Map<Long, Account> accounts = state.accounts;
+        if (!accounts.containsKey(source)) {
+            return "Account not found";
+        }
+        Money amount;
+        try {
+            amount = event.getAmount() == null ? null : Money.of(event.getAmount(), accounts.get(source).getCurrency());
+        } catch (ArithmeticException e) {
+            amount = null;
+        }
+        if (amount == null || amount.signum() <= 0) {
+            return "Invalid amount";
+        }
+
+        switch (String.valueOf(event.getType())) {
+            case "DEPOSIT" -> {
+                state.credit(source, amount);
+                state.applied.add(new AccountEvent(AccountEvent.DEPOSITED, source, accounts.get(source).getUserId(), event.getAmount()));
+            }
+            case "WITHDRAW" -> {
+                if (!state.debit(source, amount, event.getHoldId())) {
+                    return "Insufficient balance";
+                }
+                state.applied.add(new AccountEvent(AccountEvent.WITHDRAWN, source, accounts.get(source).getUserId(), event.getAmount()));
+            }
+            case "TRANSFER" -> {
+                Long destination = event.getDestinationAccountId();
+                if (destination == null || !accounts.containsKey(destination)) {
+                    return "Destination account not found";
+                }
+                if (destination.equals(source)) {
+                    return "Cannot transfer to the same account";
+                }
+                if (!accounts.get(destination).getCurrency().equals(amount.getCurrency())) {
+                    return "Currency mismatch";
+                }
+                if (!state.debit(source, amount, event.getHoldId())) {
+                    return "Insufficient balance";
+                }
+                state.credit(destination, amount);
+                state.applied.add(new AccountEvent(AccountEvent.WITHDRAWN, source, accounts.get(source).getUserId(), event.getAmount()));
+                state.applied.add(new AccountEvent(AccountEvent.DEPOSITED, destination, accounts.get(destination).getUserId(), event.getAmount()));
+            }
+            default -> {
+                return "Unknown transaction type";
+            }
+        }
+        return null;
+    }
+
+    // Engine mode: the balance column is only as fresh as the last snapshot
+    private Account withLiveBalance(Account account) {
+        if (ledgerEngine == null) {
+            return account;
+        }
+        return ledgerEngine.balance(account.getId())
+                .map(balance -> Account.builder()
+                        .id(account.getId())
+                        .userId(account.getUserId())
+                        .balance(balance)
+                        .reserved(account.getReserved())
+                        .currency(account.getCurrency())
+                        .build())
+                .orElse(account);
+    }
+
+    // Engine mode: balances change only through transaction-events, which is what makes them durable
+    private void requireDatabaseLedger() {
+        if (ledgerEngine != null) {
+            throw new RuntimeException("Balances are owned by the ledger engine; submit a transaction event instead");
+        }
+    }
+
+    /** Locked rows of one batch and the running effect of its events on them. */
+    private static final class LockedState {
+        private final Map<Long, Account> accounts = new HashMap<>();
+        private final Map<Long, Hold> holds = new HashMap<>();
+        private final Map<Long, RunningBalance> balances = new HashMap<>();
+        private final List<Long> captured = new ArrayList<>();
+        private final List<AccountEvent> applied = new ArrayList<>();
+
+        // The rows as committed: the JDBC batch bypassed the loaded entities
+        private List<Account> changedAccounts(Collection<Long> ids) {
+            List<Account> changed = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Account account = accounts.get(id);
+                RunningBalance running = balances.get(id);
+                changed.add(Account.builder()
+                        .id(id)
+                        .userId(account.getUserId())
+                        .balance(Money.fromMinorUnits(running.balance))
+                        .reserved(Money.fromMinorUnits(running.reserved))
+                        .currency(account.getCurrency())
+                        .build());
+            }
+            return changed;
+        }
+
+        private void credit(Long accountId, Money amount) {
+            balances.get(accountId).add(amount);
+        }
+
+        /**
+         * Takes the amount out of an active hold on the account when the event names
+         * one that covers it (any remainder of the hold is released); otherwise out
+         * of the available balance. False when neither can pay.
+         */
+        private boolean debit(Long accountId, Money amount, Long holdId) {
+            RunningBalance running = balances.get(accountId);
+            Hold hold = holdId == null ? null : holds.get(holdId);
+            if (hold != null && hold.getAccountId().equals(accountId)) {
+                long held = Money.toMinorUnits(hold.getAmount());
+                if (held >= amount.getMinorUnits()) {
+                    holds.remove(holdId);
+                    captured.add(holdId);
+                    running.release(held);
+                    running.add(amount.negate());
+                    return true;
+                }
+            }
+            if (running.available() < amount.getMinorUnits()) {
+                return false;
+            }
+            running.add(amount.negate());
+            return true;
+        }
+    }
+
+    /**
+     * One locked account's balance, reserved amount and net change so far, in
+     * minor units of its currency. Updated in place, so replaying a batch
+     * allocates nothing per event beyond the event's own {@link Money} amount.
+     */
+    private static final class RunningBalance {
+        private final String currency;
+        private long balance;
+        private long reserved;
+        private long delta;
+        private long reservedDelta;
+        private boolean touched;
+
+        private RunningBalance(Account account) {
+            this.currency = account.getCurrency();
+            this.balance = Money.toMinorUnits(account.getBalance());
+            this.reserved = Money.toMinorUnits(account.getReserved());
+        }
+
+        private long available() {
+            return balance - reserved;
+        }
+
+        private void add(Money amount) {
+            if (!currency.equals(amount.getCurrency())) {
+                throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + amount.getCurrency());
+            }
+            balance = Math.addExact(balance, amount.getMinorUnits());
+            delta = Math.addExact(delta, amount.getMinorUnits());
+            touched = true;
+        }
+
+        private void release(long heldMinorUnits) {
+            reserved -= heldMinorUnits;
+            reservedDelta -= heldMinorUnits;
+            touched = true;
+        }
+    }
+
+    /** Per-event rejection reasons (null when applied) and the balances left afterwards. */
+    private static final class LockedBatch {
+        private final List<String> rejections;
+        private final Map<Long, RunningBalance> balances;
+
+        private LockedBatch(List<String> rejections, Map<Long, RunningBalance> balances) {
+            this.rejections = rejections;
+            this.balances = balances;
+        }
+
+        private BigDecimal balance(Long accountId) {
+            RunningBalance running = balances.get(accountId);
+            return running == null ? null : Money.fromMinorUnits(running.balance);
+        }
+    }
+
+    private void publish(AccountEvent event) {
+        kafkaTemplate.send("account-events", String.valueOf(event.getAccountId()), event);
+    }
 }
@@ -0,0 +1,118 @@
+package org.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timing wheel for hold expiry. Scheduling is O(1) (a lock-free hand-off,
+ * bucketed on the next tick) and each tick only visits the one bucket whose time
+ * has come, so expiring holds never needs a table scan. Deadlines further out than
+ * one revolution wait their remaining rounds in the bucket.
+ *
+ * Expiry only fires the callback; the callback decides whether the hold is still
+ * active, so captured or released holds left in the wheel are harmless.
+ */
+class HoldExpiryWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldExpiryWheel.class);
+
+    private static final class Timeout {
+        final long holdId;
+        final long deadlineTick;
+
+        Timeout(long holdId, long deadlineTick) {
+            this.holdId = holdId;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final LongConsumer onExpiry;
+    private final long startMillis;
+    private final ScheduledExecutorService ticker;
+    // Touched only by the ticker thread
+    private long currentTick;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    HoldExpiryWheel(long tickMillis, int wheelSize, LongConsumer onExpiry) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.onExpiry = onExpiry;
+        this.startMillis = System.currentTimeMillis();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void start() {
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    /** Thread-safe; a deadline already in the past fires on the next tick. */
+    void schedule(long holdId, long deadlineEpochMillis) {
+        long deadlineTick = Math.max(0, (deadlineEpochMillis - startMillis + tickMillis - 1) / tickMillis);
+        incoming.add(new Timeout(holdId, deadlineTick));
+    }
+
+    private void tick() {
+        try {
+            long targetTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+            // Catch up if the ticker fell behind, one bucket per missed tick
+            while (currentTick <= targetTick) {
+                transferIncoming();
+                expireBucket(currentTick);
+                currentTick++;
+            }
+        } catch (RuntimeException e) {
+            logger.error("Hold expiry tick failed", e);
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            buckets[(int) (Math.max(timeout.deadlineTick, currentTick) & mask)].add(timeout);
+        }
+    }
+
+    private void expireBucket(long tick) {
+        Iterator<Timeout> iterator = buckets[(int) (tick & mask)].iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.deadlineTick <= tick) {
+                iterator.remove();
+                try {
+                    onExpiry.accept(timeout.holdId);
+                } catch (RuntimeException e) {
+                    logger.error("Failed to expire hold {}, retrying in one revolution", timeout.holdId, e);
+                    incoming.add(new Timeout(timeout.holdId, tick + mask + 1));
+                }
+            }
+        }
+    }
+}
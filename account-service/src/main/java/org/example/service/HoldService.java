@@ -0,0 +1,197 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.ledger.LedgerEngine;
+import org.example.model.Account;
+import org.example.model.Hold;
+import org.example.model.HoldResult;
+import org.example.repository.AccountRepository;
+import org.example.repository.HoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Funds reservations. A reserve is one conditional UPDATE on the account's
+ * reserved amount, so it either claims available funds or fails without a
+ * separate check beforehand. Active holds expire through a {@link HoldExpiryWheel}.
+ *
+ * Lock order is account row, then hold row, everywhere (including the
+ * transaction-events consumer), so resolving a hold never deadlocks with a batch.
+ *
+ * In ledger engine mode balances live in memory, so nothing is reserved: a
+ * reserve only checks the funds against the engine, which checks them again
+ * when it applies the event.
+ */
+@Service
+public class HoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldService.class);
+
+    private final AccountRepository accountRepository;
+    private final HoldRepository holdRepository;
+    private final AccountCache accountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final HoldExpiryWheel expiryWheel;
+    private final Duration ttl;
+    // Present only in ledger engine mode, where balances live in memory
+    private final LedgerEngine ledgerEngine;
+
+    public HoldService(AccountRepository accountRepository,
+                       HoldRepository holdRepository,
+                       AccountCache accountCache,
+                       PlatformTransactionManager transactionManager,
+                       ObjectProvider<LedgerEngine> ledgerEngine,
+                       @Value("${holds.ttl:PT15M}") Duration ttl,
+                       @Value("${holds.expiry-wheel.tick-ms:1000}") long tickMillis,
+                       @Value("${holds.expiry-wheel.size:512}") int wheelSize) {
+        this.accountRepository = accountRepository;
+        this.holdRepository = holdRepository;
+        this.accountCache = accountCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.ledgerEngine = ledgerEngine.getIfAvailable();
+        this.expiryWheel = new HoldExpiryWheel(tickMillis, wheelSize, this::expire);
+    }
+
+    @PostConstruct
+    void start() {
+        // The one time active holds are read in bulk: re-arm them after a restart
+        List<Hold> active = holdRepository.findByStatus(Hold.HELD);
+        active.forEach(hold -> expiryWheel.schedule(hold.getId(), toEpochMillis(hold.getExpiresAt())));
+        expiryWheel.start();
+        logger.info("Hold expiry wheel started with {} active holds", active.size());
+    }
+
+    @PreDestroy
+    void stop() {
+        expiryWheel.stop();
+    }
+
+    /**
+     * Checks ownership (when userId is given) and the destination, which must hold
+     * the same currency, then atomically reserves the amount from the available balance.
+     */
+    @Transactional
+    public HoldResult reserve(Long accountId, Long userId, BigDecimal amount, Long destinationAccountId) {
+        List<Long> ids = destinationAccountId == null
+                ? List.of(accountId)
+                : List.of(accountId, destinationAccountId);
+        Map<Long, Account> accounts = accountRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity(), (a, b) -> a));
+
+        Account source = accounts.get(accountId);
+        if (source == null) {
+            return HoldResult.builder().status(HoldResult.ACCOUNT_NOT_FOUND).build();
+        }
+        if (userId != null && !source.getUserId().equals(userId)) {
+            return HoldResult.builder().status(HoldResult.NOT_OWNER).build();
+        }
+        if (destinationAccountId != null && !accounts.containsKey(destinationAccountId)) {
+            return HoldResult.builder().status(HoldResult.DESTINATION_NOT_FOUND).build();
+        }
+        if (destinationAccountId != null && !accounts.get(destinationAccountId).getCurrency().equals(source.getCurrency())) {
+            return HoldResult.builder().status(HoldResult.CURRENCY_MISMATCH).build();
+        }
+        if (ledgerEngine != null) {
+            boolean available = ledgerEngine.balance(accountId)
+                    .map(balance -> balance.compareTo(amount) >= 0)
+                    .orElse(false);
+            return HoldResult.builder()
+                    .status(available ? HoldResult.FUNDS_AVAILABLE : HoldResult.INSUFFICIENT_FUNDS)
+                    .build();
+        }
+        if (accountRepository.reserveIfAvailable(accountId, amount).isEmpty()) {
+            return HoldResult.builder().status(HoldResult.INSUFFICIENT_FUNDS).build();
+        }
+        accountCache.evictAfterCommit(List.of(accountId));
+
+        LocalDateTime now = LocalDateTime.now();
+        Hold hold = holdRepository.save(Hold.builder()
+                .accountId(accountId)
+                .amount(amount)
+                .status(Hold.HELD)
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                expiryWheel.schedule(hold.getId(), toEpochMillis(hold.getExpiresAt()));
+            }
+        });
+        return HoldResult.builder().status(HoldResult.HELD).holdId(hold.getId()).expiresAt(hold.getExpiresAt()).build();
+    }
+
+    /** The reserved money leaves the account. */
+    @Transactional
+    public Hold capture(Long holdId) {
+        requireDatabaseLedger();
+        Hold hold = resolve(holdId, Hold.CAPTURED);
+        accountRepository.captureReserved(hold.getAccountId(), hold.getAmount());
+        accountCache.evictAfterCommit(List.of(hold.getAccountId()));
+        return hold;
+    }
+
+    /** The reserved money becomes available again. */
+    @Transactional
+    public Hold release(Long holdId) {
+        requireDatabaseLedger();
+        Hold hold = resolve(holdId, Hold.RELEASED);
+        accountRepository.releaseReserved(hold.getAccountId(), hold.getAmount());
+        accountCache.evictAfterCommit(List.of(hold.getAccountId()));
+        return hold;
+    }
+
+    // Wheel callback: runs on the wheel thread, outside any proxy, hence the template
+    private void expire(long holdId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Long accountId = holdRepository.findAccountIdById(holdId).orElse(null);
+            if (accountId == null) {
+                return;
+            }
+            accountRepository.findAllByIdForUpdate(List.of(accountId));
+            holdRepository.resolveIfHeld(holdId, Hold.EXPIRED).ifPresent(expired -> {
+                accountRepository.releaseReserved(expired.getAccountId(), expired.getAmount());
+                accountCache.evictAfterCommit(List.of(expired.getAccountId()));
+                logger.info("Hold {} expired, released {} on account {}", holdId, expired.getAmount(), expired.getAccountId());
+            });
+        });
+    }
+
+    private Hold resolve(Long holdId, String status) {
+        Long accountId = holdRepository.findAccountIdById(holdId)
+                .orElseThrow(() -> new RuntimeException("Hold not found"));
+        accountRepository.findAllByIdForUpdate(List.of(accountId));
+        return holdRepository.resolveIfHeld(holdId, status)
+                .orElseThrow(() -> new RuntimeException("Hold is no longer active"));
+    }
+
+    private void requireDatabaseLedger() {
+        if (ledgerEngine != null) {
+            throw new RuntimeException("Holds are not supported while the ledger engine is enabled");
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import org.example.common.BloomFilter;
+import org.example.common.TransactionEvent;
+import org.example.repository.ProcessedEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers which transaction events account-service has already handled, so
+ * at-least-once redelivery can't move money twice.
+ *
+ * The processed_events table is the source of truth; its primary key also stops
+ * two consumers from recording the same event concurrently (the loser's batch
+ * rolls back and is retried). An in-memory bloom filter sits in front of it: an id
+ * the filter has never seen is certainly new, so only the rare "maybe seen" ids
+ * are looked up in Postgres. The filter is rebuilt from the table at startup,
+ * before the listener containers start.
+ */
+@Component
+public class ProcessedEventLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessedEventLedger.class);
+    private static final int REBUILD_PAGE_SIZE = 50_000;
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BloomFilter processedIds;
+
+    public ProcessedEventLedger(ProcessedEventRepository processedEventRepository,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${processed-events.bloom.expected-insertions:1000000}") long expectedInsertions,
+                                @Value("${processed-events.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.processedEventRepository = processedEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.processedIds = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void rebuild() {
+        long loaded = 0;
+        Long after = Long.MIN_VALUE;
+        List<Long> page;
+        do {
+            page = processedEventRepository.findIdsAfter(after, Limit.of(REBUILD_PAGE_SIZE));
+            page.forEach(processedIds::put);
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == REBUILD_PAGE_SIZE);
+        logger.info("Processed-events bloom filter rebuilt from {} ledger entries ({} bits, {} hashes)",
+                loaded, processedIds.bitCount(), processedIds.hashCount());
+    }
+
+    /**
+     * Drops events that were already processed, and repeats of an id within the
+     * batch. Events without a transactionId can't be deduplicated and pass through.
+     */
+    public List<TransactionEvent> retainUnprocessed(List<TransactionEvent> events) {
+        Set<Long> maybeSeen = new HashSet<>();
+        for (TransactionEvent event : events) {
+            if (event.getTransactionId() != null && processedIds.mightContain(event.getTransactionId())) {
+                maybeSeen.add(event.getTransactionId());
+            }
+        }
+        Set<Long> seen = maybeSeen.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(processedEventRepository.findExistingIds(maybeSeen));
+
+        List<TransactionEvent> unprocessed = new ArrayList<>(events.size());
+        for (TransactionEvent event : events) {
+            Long id = event.getTransactionId();
+            if (id == null || seen.add(id)) {
+                unprocessed.add(event);
+            } else {
+                logger.info("Skipping already processed transaction event {}", id);
+            }
+        }
+        return unprocessed;
+    }
+
+    /**
+     * Writes ledger entries (transactionId to applied/rejected) in the caller's DB
+     * transaction; the ids join the bloom filter once that transaction commits.
+     */
+    public void record(Map<Long, Boolean> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(outcomes.size());
+        outcomes.forEach((id, applied) -> rows.add(new Object[]{id, applied, now}));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO processed_events (transaction_id, applied, processed_at) VALUES (?, ?, ?)", rows);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outcomes.keySet().forEach(processedIds::put);
+            }
+        });
+    }
+}
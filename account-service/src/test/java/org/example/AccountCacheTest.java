@@ -0,0 +1,66 @@
+package org.example;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.model.Account;
+import org.example.model.AccountEvent;
+import org.example.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AccountCacheTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private KafkaTemplate<String, AccountEvent> kafkaTemplate;
+
+    @Test
+    void readsComeFromMemoryAndWritesGoThrough() {
+        long userId = System.nanoTime();
+        Account source = accountService.createAccount(userId, new BigDecimal("100.00"), "USD");
+        Account destination = accountService.createAccount(userId, new BigDecimal("0.00"), "USD");
+        assertEquals(2, accountService.getAccountsByUser(userId).size());
+
+        // Changed behind the service's back: cached reads don't see it
+        jdbcTemplate.update("UPDATE accounts SET balance = 1 WHERE id = ?", source.getId());
+        assertBalance("100.00", source.getId());
+
+        accountService.deposit(source.getId(), new BigDecimal("9"));
+        assertBalance("10.00", source.getId());
+
+        accountService.transfer(source.getId(), destination.getId(), new BigDecimal("4"));
+        assertBalance("6.00", source.getId());
+        assertBalance("4.00", destination.getId());
+
+        Account third = accountService.createAccount(userId, new BigDecimal("1.00"), "USD");
+        List<Account> owned = accountService.getAccountsByUser(userId);
+        assertEquals(List.of(source.getId(), destination.getId(), third.getId()), owned.stream().map(Account::getId).toList());
+        assertEquals(0, new BigDecimal("6.00").compareTo(owned.get(0).getBalance()));
+
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "hit").functionCounter().count() > 0);
+    }
+
+    private void assertBalance(String expected, Long accountId) {
+        assertEquals(0, new BigDecimal(expected).compareTo(accountService.getAccount(accountId).orElseThrow().getBalance()));
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import org.example.model.Account;
+import org.example.model.AccountEvent;
+import org.example.repository.AccountRepository;
+import org.example.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AtomicBalanceUpdateTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @MockBean
+    private KafkaTemplate<String, AccountEvent> kafkaTemplate;
+
+    @Test
+    void concurrentWithdrawalsNeitherLoseUpdatesNorOverdraw() throws Exception {
+        Long id = accountRepository.save(Account.builder()
+                .userId(1L).balance(new BigDecimal("100.00")).currency("USD").build()).getId();
+
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        accountService.withdraw(id, BigDecimal.TEN);
+                        succeeded.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertEquals("Insufficient balance", e.getMessage());
+                    }
+                    accountService.deposit(id, BigDecimal.ONE);
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal expected = new BigDecimal("140.00").subtract(BigDecimal.TEN.multiply(BigDecimal.valueOf(succeeded.get())));
+        assertEquals(0, expected.compareTo(accountRepository.findById(id).orElseThrow().getBalance()));
+        assertEquals(0, accountService.deposit(id, BigDecimal.ONE).getBalance().compareTo(expected.add(BigDecimal.ONE)));
+        assertEquals("Account not found",
+                assertThrows(RuntimeException.class, () -> accountService.withdraw(-1L, BigDecimal.ONE)).getMessage());
+    }
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+import org.example.model.Account;
+import org.example.model.AccountEvent;
+import org.example.model.CreateAccountRequest;
+import org.example.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkAccountTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @MockBean
+    private KafkaTemplate<String, AccountEvent> kafkaTemplate;
+
+    @Test
+    void batchCreateThenMultiGet() {
+        long userId = System.nanoTime();
+        List<CreateAccountRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            requests.add(new CreateAccountRequest(userId, BigDecimal.valueOf(i), "USD"));
+        }
+
+        List<Account> created = accountService.createAccounts(requests);
+        assertEquals(1000, created.size());
+        assertEquals(1000, accountService.getAccountsByUser(userId).size());
+        Mockito.verify(kafkaTemplate, Mockito.times(1000)).send(eq("account-events"), anyString(), any(AccountEvent.class));
+
+        List<Long> ids = List.of(created.get(5).getId(), -1L, created.get(999).getId());
+        Map<Long, Account> found = accountService.getAccounts(ids);
+        assertEquals(List.of(created.get(5).getId(), created.get(999).getId()), List.copyOf(found.keySet()));
+        assertEquals(0, BigDecimal.valueOf(999).compareTo(found.get(created.get(999).getId()).getBalance()));
+        assertFalse(found.containsKey(-1L));
+    }
+}
@@ -0,0 +1,113 @@
+package org.example;
+
+import org.example.common.TransactionEvent;
+import org.example.model.Account;
+import org.example.model.AccountEvent;
+import org.example.model.Hold;
+import org.example.model.HoldResult;
+import org.example.repository.AccountRepository;
+import org.example.repository.HoldRepository;
+import org.example.service.AccountService;
+import org.example.service.HoldService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {"holds.ttl=PT1S", "holds.expiry-wheel.tick-ms=100"})
+@ActiveProfiles("test")
+class HoldServiceTest {
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @MockBean
+    private KafkaTemplate<String, AccountEvent> kafkaTemplate;
+
+    @Test
+    void reserveClaimsAvailableBalanceOnly() {
+        Long id = newAccount(1L, "100.00");
+
+        HoldResult first = holdService.reserve(id, 1L, new BigDecimal("70"), null);
+        assertEquals(HoldResult.HELD, first.getStatus());
+        assertEquals(HoldResult.INSUFFICIENT_FUNDS, holdService.reserve(id, 1L, new BigDecimal("40"), null).getStatus());
+        assertEquals(HoldResult.NOT_OWNER, holdService.reserve(id, 2L, new BigDecimal("1"), null).getStatus());
+        Long euros = accountRepository.save(Account.builder()
+                .userId(2L).balance(BigDecimal.ZERO).currency("EUR").build()).getId();
+        assertEquals(HoldResult.CURRENCY_MISMATCH, holdService.reserve(id, 1L, new BigDecimal("1"), euros).getStatus());
+        assertThrows(RuntimeException.class, () -> accountService.withdraw(id, new BigDecimal("40")));
+
+        Account account = accountRepository.findById(id).orElseThrow();
+        assertEquals(0, new BigDecimal("100.00").compareTo(account.getBalance()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(account.getAvailableBalance()));
+    }
+
+    @Test
+    void captureAndReleaseResolveAHoldOnce() {
+        Long id = newAccount(1L, "100.00");
+        Long captured = holdService.reserve(id, 1L, new BigDecimal("30"), null).getHoldId();
+        Long released = holdService.reserve(id, 1L, new BigDecimal("20"), null).getHoldId();
+
+        assertEquals(Hold.CAPTURED, holdService.capture(captured).getStatus());
+        assertEquals(Hold.RELEASED, holdService.release(released).getStatus());
+        assertThrows(RuntimeException.class, () -> holdService.release(captured));
+
+        Account account = accountRepository.findById(id).orElseThrow();
+        assertEquals(0, new BigDecimal("70.00").compareTo(account.getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(account.getReserved()));
+    }
+
+    @Test
+    void transactionEventCapturesItsHold() {
+        Long source = newAccount(1L, "100.00");
+        Long destination = newAccount(2L, "0.00");
+        Long holdId = holdService.reserve(source, 1L, new BigDecimal("80"), destination).getHoldId();
+
+        // Only the held funds can pay for it; the remaining 20 are not enough
+        TransactionEvent transfer = new TransactionEvent(System.nanoTime(), source, new BigDecimal("75"), "TRANSFER", null, destination);
+        transfer.setHoldId(holdId);
+        assertEquals(1, accountService.applyTransactionEvents(List.of(transfer)));
+
+        Account account = accountRepository.findById(source).orElseThrow();
+        assertEquals(0, new BigDecimal("25.00").compareTo(account.getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(account.getReserved()));
+        assertEquals(Hold.CAPTURED, holdRepository.findById(holdId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void unresolvedHoldsExpire() throws InterruptedException {
+        Long id = newAccount(1L, "100.00");
+        Long holdId = holdService.reserve(id, 1L, new BigDecimal("100"), null).getHoldId();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Hold.EXPIRED.equals(holdRepository.findById(holdId).orElseThrow().getStatus())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(Hold.EXPIRED, holdRepository.findById(holdId).orElseThrow().getStatus());
+        assertEquals(0, new BigDecimal("100.00").compareTo(accountRepository.findById(id).orElseThrow().getAvailableBalance()));
+    }
+
+    private Long newAccount(Long userId, String balance) {
+        return accountRepository.save(Account.builder()
+                .userId(userId).balance(new BigDecimal(balance)).currency("USD").build()).getId();
+    }
+}
@@ -0,0 +1,103 @@
+package org.example;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.common.TransactionEvent;
+import org.example.ledger.LedgerEngine;
+import org.example.model.Account;
+import org.example.model.AccountEvent;
+import org.example.model.HoldResult;
+import org.example.repository.AccountRepository;
+import org.example.service.AccountService;
+import org.example.service.HoldService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"ledger.engine.enabled=true", "ledger.engine.snapshot-interval-ms=3600000"})
+@ActiveProfiles("test")
+class LedgerEngineTest {
+
+    private static final int PARTITION = 0;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private KafkaTemplate<String, AccountEvent> kafkaTemplate;
+
+    @Test
+    void appliesEventsInMemoryAndSnapshotsBalancesWithOffsets() {
+        Long source = accountService.createAccount(1L, new BigDecimal("100.00"), "USD").getId();
+        Long destination = accountService.createAccount(2L, new BigDecimal("0.00"), "USD").getId();
+        long offset = ledgerEngine.appliedOffsets().getOrDefault(PARTITION, 0L);
+
+        ledgerEngine.apply(List.of(
+                record(offset, new TransactionEvent(1L, source, new BigDecimal("30.50"), "DEPOSIT", null, null)),
+                record(offset + 1, new TransactionEvent(2L, source, new BigDecimal("500"), "WITHDRAW", null, null)),
+                record(offset + 2, new TransactionEvent(3L, source, new BigDecimal("100"), "TRANSFER", null, destination)),
+                record(offset + 3, new TransactionEvent(4L, source, new BigDecimal("1"), "TRANSFER", null, -5L))));
+
+        // Reads queue behind the events on the owning shard; the credit hops shards, so snapshot first
+        ledgerEngine.snapshot();
+        assertEquals(0, new BigDecimal("30.50").compareTo(ledgerEngine.balance(source).orElseThrow()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(ledgerEngine.balance(destination).orElseThrow()));
+        assertTrue(accountService.validateAccountFund(destination, new BigDecimal("100")));
+        assertFalse(accountService.validateAccountFund(source, new BigDecimal("31")));
+
+        assertEquals(0, new BigDecimal("30.50").compareTo(accountRepository.findById(source).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(accountRepository.findById(destination).orElseThrow().getBalance()));
+        assertEquals(offset + 4, jdbcTemplate.queryForObject(
+                "SELECT next_offset FROM ledger_offsets WHERE partition_id = ?", Long.class, PARTITION));
+
+        assertThrows(RuntimeException.class, () -> accountService.deposit(source, BigDecimal.ONE));
+    }
+
+    @Test
+    void withdrawalIsCheckedAgainstTheEngineInsteadOfHeld() {
+        Long account = accountService.createAccount(3L, new BigDecimal("50.00"), "USD").getId();
+        Long euros = accountService.createAccount(4L, new BigDecimal("0.00"), "EUR").getId();
+
+        assertEquals(HoldResult.NOT_OWNER, holdService.reserve(account, 99L, new BigDecimal("10"), null).getStatus());
+        assertEquals(HoldResult.CURRENCY_MISMATCH, holdService.reserve(account, 3L, new BigDecimal("10"), euros).getStatus());
+        assertEquals(HoldResult.INSUFFICIENT_FUNDS, holdService.reserve(account, 3L, new BigDecimal("50.01"), null).getStatus());
+        HoldResult checked = holdService.reserve(account, 3L, new BigDecimal("40"), null);
+        assertEquals(HoldResult.FUNDS_AVAILABLE, checked.getStatus());
+        assertNull(checked.getHoldId());
+
+        // The withdrawal's event, as transaction-service queues it: no hold id to capture
+        long offset = ledgerEngine.appliedOffsets().getOrDefault(PARTITION, 0L);
+        ledgerEngine.apply(List.of(record(offset, new TransactionEvent(5L, account, new BigDecimal("40"), "WITHDRAW", null, null))));
+
+        assertEquals(0, new BigDecimal("10.00").compareTo(ledgerEngine.balance(account).orElseThrow()));
+        assertEquals(HoldResult.INSUFFICIENT_FUNDS, holdService.reserve(account, 3L, new BigDecimal("40"), null).getStatus());
+    }
+
+    private static ConsumerRecord<String, TransactionEvent> record(long offset, TransactionEvent event) {
+        return new ConsumerRecord<>("transaction-events", PARTITION, offset, String.valueOf(event.getAccountId()), event);
+    }
+}
@@ -0,0 +1,138 @@
+package org.example;
+
+import org.example.common.TransactionEvent;
+import org.example.config.OrderedLaneDispatcher;
+import org.example.model.Account;
+import org.example.model.AccountEvent;
+import org.example.repository.AccountRepository;
+import org.example.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionBatchApplyTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OrderedLaneDispatcher laneDispatcher;
+
+    @MockBean
+    private KafkaTemplate<String, AccountEvent> kafkaTemplate;
+
+    @Test
+    void batchRejectsOverdraftsInEventOrderAndAppliesNetDeltas() {
+        Long source = accountRepository.save(Account.builder()
+                .userId(1L).balance(new BigDecimal("100.00")).currency("USD").build()).getId();
+        Long destination = accountRepository.save(Account.builder()
+                .userId(2L).balance(new BigDecimal("0.00")).currency("USD").build()).getId();
+
+        long id = nextTransactionId();
+        int applied = accountService.applyTransactionEvents(List.of(
+                new TransactionEvent(id, source, new BigDecimal("60"), "WITHDRAW", null, null),
+                new TransactionEvent(id + 1, source, new BigDecimal("60"), "WITHDRAW", null, null),   // 40 left: rejected
+                new TransactionEvent(id + 2, source, new BigDecimal("30"), "DEPOSIT", null, null),
+                new TransactionEvent(id + 3, source, new BigDecimal("60"), "WITHDRAW", null, null),   // 70 left: applied
+                new TransactionEvent(id + 4, source, new BigDecimal("25"), "TRANSFER", null, destination), // 10 left: rejected
+                new TransactionEvent(id + 5, source, new BigDecimal("5"), "TRANSFER", null, destination),
+                new TransactionEvent(id + 6, source, new BigDecimal("5"), "TRANSFER", null, -1L)       // no destination
+        ));
+
+        assertEquals(4, applied);
+        assertEquals(0, new BigDecimal("5.00").compareTo(accountRepository.findById(source).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("5.00").compareTo(accountRepository.findById(destination).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void redeliveredEventsAreNotAppliedTwice() {
+        Long account = accountRepository.save(Account.builder()
+                .userId(1L).balance(new BigDecimal("100.00")).currency("USD").build()).getId();
+        long id = nextTransactionId();
+        List<TransactionEvent> batch = List.of(
+                new TransactionEvent(id, account, new BigDecimal("10"), "DEPOSIT", null, null),
+                new TransactionEvent(id + 1, account, new BigDecimal("500"), "WITHDRAW", null, null)); // rejected
+
+        assertEquals(1, accountService.applyTransactionEvents(batch));
+        // Replay, plus an in-batch duplicate and one new event
+        assertEquals(1, accountService.applyTransactionEvents(List.of(
+                batch.get(0), batch.get(1), batch.get(0),
+                new TransactionEvent(id + 2, account, new BigDecimal("1"), "DEPOSIT", null, null))));
+
+        assertEquals(0, new BigDecimal("111.00").compareTo(accountRepository.findById(account).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void transfersStayWithinOneCurrencyAndAmountsWithinTheColumnScale() {
+        Long usd = accountRepository.save(Account.builder()
+                .userId(1L).balance(new BigDecimal("100.00")).currency("USD").build()).getId();
+        Long eur = accountRepository.save(Account.builder()
+                .userId(2L).balance(new BigDecimal("0.00")).currency("EUR").build()).getId();
+
+        long id = nextTransactionId();
+        assertEquals(1, accountService.applyTransactionEvents(List.of(
+                new TransactionEvent(id, usd, new BigDecimal("10"), "TRANSFER", null, eur),       // currency mismatch
+                new TransactionEvent(id + 1, usd, new BigDecimal("0.005"), "WITHDRAW", null, null), // below a cent
+                new TransactionEvent(id + 2, usd, new BigDecimal("0.25"), "WITHDRAW", null, null))));
+
+        assertEquals(0, new BigDecimal("99.75").compareTo(accountRepository.findById(usd).orElseThrow().getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountRepository.findById(eur).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void lanesApplyCrossAccountTransfersWithoutLosingMoney() {
+        List<Long> accounts = new ArrayList<>();
+        Map<Long, BigDecimal> expected = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            Long account = accountRepository.save(Account.builder()
+                    .userId(1L).balance(new BigDecimal("1000.00")).currency("USD").build()).getId();
+            accounts.add(account);
+            expected.put(account, new BigDecimal("1000.00"));
+        }
+
+        // Transfers credit accounts that other lanes are debiting at the same time
+        List<TransactionEvent> batch = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Long source = accounts.get(i % accounts.size());
+            if (i % 3 == 0) {
+                batch.add(new TransactionEvent(nextTransactionId(), source, BigDecimal.ONE, "DEPOSIT", null, null));
+                expected.merge(source, BigDecimal.ONE, BigDecimal::add);
+            } else {
+                Long destination = accounts.get((i + 7) % accounts.size());
+                batch.add(new TransactionEvent(nextTransactionId(), source, BigDecimal.TEN, "TRANSFER", null, destination));
+                expected.merge(source, BigDecimal.TEN.negate(), BigDecimal::add);
+                expected.merge(destination, BigDecimal.TEN, BigDecimal::add);
+            }
+        }
+
+        laneDispatcher.dispatch(batch, TransactionEvent::getAccountId, accountService::applyTransactionEvents);
+
+        for (Long account : accounts) {
+            assertEquals(0, expected.get(account).compareTo(accountRepository.findById(account).orElseThrow().getBalance()));
+        }
+    }
+
+    // The test database outlives a run, so ids must not repeat across runs
+    private static final AtomicLong TRANSACTION_IDS = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private static long nextTransactionId() {
+        return TRANSACTION_IDS.getAndAdd(100);
+    }
+}
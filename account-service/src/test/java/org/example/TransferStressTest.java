@@ -0,0 +1,107 @@
+package org.example;
+
+import org.example.model.Account;
+import org.example.model.AccountEvent;
+import org.example.model.TransferRequest;
+import org.example.repository.AccountRepository;
+import org.example.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Thousands of opposing transfers (A to B and B to A at the same time) across a
+ * handful of hot accounts, mixing single and bulk calls. Postgres aborts one side
+ * of any deadlock, which would surface here as a failed future; money must be
+ * conserved exactly.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TransferStressTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int TRANSFERS = 4000;
+    private static final int BULK_SIZE = 10;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @MockBean
+    private KafkaTemplate<String, AccountEvent> kafkaTemplate;
+
+    @Test
+    void opposingTransfersConserveMoneyAndNeverDeadlock() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids.add(accountRepository.save(Account.builder()
+                    .userId(1L).balance(new BigDecimal("100.00")).currency("USD").build()).getId());
+        }
+        BigDecimal totalBefore = total(ids);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < TRANSFERS; i += BULK_SIZE) {
+                boolean bulk = (i / BULK_SIZE) % 2 == 0;
+                results.add(executor.submit(() -> {
+                    List<TransferRequest> transfers = new ArrayList<>(BULK_SIZE);
+                    for (int j = 0; j < BULK_SIZE; j++) {
+                        transfers.add(randomTransfer(ids));
+                    }
+                    if (bulk) {
+                        accountService.transferAll(transfers);
+                        return;
+                    }
+                    for (TransferRequest transfer : transfers) {
+                        try {
+                            accountService.transfer(transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount());
+                        } catch (RuntimeException e) {
+                            assertEquals("Insufficient balance", e.getMessage());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, totalBefore.compareTo(total(ids)));
+        for (Long id : ids) {
+            assertTrue(accountRepository.findById(id).orElseThrow().getBalance().signum() >= 0);
+        }
+    }
+
+    private static TransferRequest randomTransfer(List<Long> ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ids.size());
+        int to = (from + 1 + random.nextInt(ids.size() - 1)) % ids.size();
+        return new TransferRequest(ids.get(from), ids.get(to), BigDecimal.valueOf(1 + random.nextInt(30)));
+    }
+
+    private BigDecimal total(List<Long> ids) {
+        return accountRepository.findAllById(ids).stream()
+                .map(Account::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
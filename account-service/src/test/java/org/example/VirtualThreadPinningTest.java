@@ -0,0 +1,100 @@
+package org.example;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.example.common.TransactionEvent;
+import org.example.config.TransactionConsumer;
+import org.example.model.Account;
+import org.example.model.AccountEvent;
+import org.example.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the TransactionConsumer hot path (JPA + JDBC against the test database)
+ * from virtual threads and fails if JFR reports a carrier thread being pinned,
+ * e.g. by a blocking call inside a {@code synchronized} block.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class VirtualThreadPinningTest {
+
+    @Autowired
+    private TransactionConsumer transactionConsumer;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @MockBean
+    private KafkaTemplate<String, AccountEvent> kafkaTemplate;
+
+    @Test
+    void consumeHotPathDoesNotPinCarrierThreads() throws Exception {
+        Account source = accountRepository.save(Account.builder()
+                .userId(1L).balance(new BigDecimal("1000000.00")).currency("USD").build());
+        Account destination = accountRepository.save(Account.builder()
+                .userId(2L).balance(new BigDecimal("1000000.00")).currency("USD").build());
+
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            stream.startAsync();
+
+            // Keep fewer tasks in flight than there are carriers, so a pinning regression shows up
+            // as JFR events instead of deadlocking the pool it is supposed to diagnose
+            Semaphore inFlight = new Semaphore(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            List<Future<?>> results = new ArrayList<>();
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            try {
+                // Fresh ids per run, or the processed-events ledger would skip them on the next run
+                long firstId = System.currentTimeMillis() * 1000;
+                for (long i = 0; i < 500; i++) {
+                    long id = firstId + i;
+                    TransactionEvent event = switch ((int) (i % 3)) {
+                        case 0 -> new TransactionEvent(id, source.getId(), BigDecimal.ONE, "DEPOSIT", null, null);
+                        case 1 -> new TransactionEvent(id, source.getId(), BigDecimal.ONE, "WITHDRAW", null, null);
+                        default -> new TransactionEvent(id, source.getId(), BigDecimal.ONE, "TRANSFER", null, destination.getId());
+                    };
+                    inFlight.acquire();
+                    results.add(executor.submit(() -> {
+                        try {
+                            transactionConsumer.consume(event);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            stream.stop();
+        }
+
+        assertTrue(pinned.isEmpty(), () -> "Carrier threads pinned on the consume path:\n" + pinned.stream()
+                .map(event -> event.getStackTrace() == null ? event.toString() : event.getStackTrace().toString())
+                .distinct()
+                .collect(Collectors.joining("\n")));
+    }
+}
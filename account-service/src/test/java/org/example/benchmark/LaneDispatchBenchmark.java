@@ -0,0 +1,77 @@
+package org.example.benchmark;
+
+import org.example.config.OrderedLaneDispatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of applying one polled batch of transaction events. Each lane is
+ * one DB transaction, so a lane parks for {@code transactionMicros} (lock query,
+ * batched update, ledger insert and commit round trips) plus {@code eventMicros}
+ * per event it carries. {@code lanes=1} is the whole batch in one transaction;
+ * higher lane counts show how far splitting it by account scales while keeping
+ * per-account order.
+ *
+ * <pre>
+ * gradle :account-service:benchmark -Pbenchmark=LaneDispatchBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LaneDispatchBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int lanes;
+
+    @Param({"100"})
+    public int accounts;
+
+    @Param({"2000"})
+    public int transactionMicros;
+
+    @Param({"50"})
+    public int eventMicros;
+
+    private static final int BATCH_SIZE = 500;
+
+    private OrderedLaneDispatcher dispatcher;
+    private List<long[]> batch;
+
+    @Setup
+    public void setUp() {
+        dispatcher = new OrderedLaneDispatcher(Executors.newFixedThreadPool(lanes), lanes);
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new long[]{i % accounts, i});
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    /** One op is one batch; multiply by 500 for events per second. */
+    @Benchmark
+    public void applyBatch() {
+        dispatcher.dispatch(batch, event -> event[0], lane -> LockSupport.parkNanos(
+                TimeUnit.MICROSECONDS.toNanos(transactionMicros + (long) eventMicros * lane.size())));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(LaneDispatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.benchmark;
+
+import org.example.AccountServiceApplication;
+import org.example.common.Money;
+import org.example.common.TransactionEvent;
+import org.example.ledger.LedgerEngine;
+import org.example.model.Account;
+import org.example.repository.AccountRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger engine mode against the JPA path, on the same accounts in the test
+ * database (see application-test.yml):
+ * <ul>
+ *   <li>{@code checkFunds}: what {@code /accounts/{id}/checksum} costs, an
+ *       in-memory shard read against {@code findById}.</li>
+ *   <li>{@code deposit}: apply one deposit and read the balance back, against the
+ *       atomic {@code UPDATE ... RETURNING} round trip.</li>
+ * </ul>
+ * {@link #main} runs everything with 1 and then 4 client threads, so the second
+ * pass doubles as the load comparison.
+ *
+ * <pre>
+ * gradle :account-service:benchmark -Pbenchmark=LedgerEngineBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LedgerEngineBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+    private static final BigDecimal THRESHOLD = new BigDecimal("50.00");
+
+    private ConfigurableApplicationContext context;
+    private LedgerEngine ledgerEngine;
+    private AccountRepository accountRepository;
+    private long[] accountIds;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(AccountServiceApplication.class,
+                "--spring.profiles.active=test",
+                "--ledger.engine.enabled=true",
+                "--ledger.engine.snapshot-interval-ms=3600000",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        ledgerEngine = context.getBean(LedgerEngine.class);
+        accountRepository = context.getBean(AccountRepository.class);
+
+        List<Account> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(Account.builder().userId(1L).balance(new BigDecimal("100.00")).currency("USD").build());
+        }
+        accountIds = accountRepository.saveAll(accounts).stream().mapToLong(Account::getId).toArray();
+        for (Account account : accounts) {
+            ledgerEngine.register(account.getId(), Money.of(account.getBalance(), account.getCurrency()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean checkFundsEngine() {
+        return ledgerEngine.balance(randomAccount()).map(balance -> balance.compareTo(THRESHOLD) >= 0).orElse(false);
+    }
+
+    @Benchmark
+    public boolean checkFundsJpa() {
+        return accountRepository.findById(randomAccount())
+                .map(account -> account.getBalance().compareTo(THRESHOLD) >= 0)
+                .orElse(false);
+    }
+
+    @Benchmark
+    public BigDecimal depositEngine() {
+        long id = randomAccount();
+        ledgerEngine.submit(new TransactionEvent(null, id, BigDecimal.ONE, "DEPOSIT", null, null));
+        return ledgerEngine.balance(id).orElseThrow();
+    }
+
+    @Benchmark
+    public BigDecimal depositJpa() {
+        return accountRepository.addToBalance(randomAccount(), BigDecimal.ONE).orElseThrow().getBalance();
+    }
+
+    private long randomAccount() {
+        return accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads : new int[]{1, 4}) {
+            new Runner(new OptionsBuilder()
+                    .include(LedgerEngineBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
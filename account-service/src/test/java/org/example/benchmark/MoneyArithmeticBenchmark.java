@@ -0,0 +1,126 @@
+package org.example.benchmark;
+
+import org.example.common.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-event arithmetic of the batch consume path ({@code AccountService.applyLocked}):
+ * convert the event amount, check the available balance, then move the running
+ * balance and the net delta. Once as the service does now, with a {@link Money}
+ * amount applied to mutable minor-unit balances, once with the BigDecimal maps it
+ * replaced. Reported per event; run through {@link #main} to get the allocation
+ * rate from the GC profiler.
+ *
+ * <pre>
+ * gradle :account-service:benchmark -Pbenchmark=MoneyArithmeticBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(MoneyArithmeticBenchmark.EVENTS)
+public class MoneyArithmeticBenchmark {
+
+    static final int EVENTS = 1024;
+    private static final int ACCOUNTS = 64;
+    private static final String CURRENCY = "USD";
+
+    private final Long[] accountIds = new Long[EVENTS];
+    private final BigDecimal[] amounts = new BigDecimal[EVENTS];
+    private final boolean[] debits = new boolean[EVENTS];
+
+    private final Map<Long, BigDecimal> decimalBalances = new HashMap<>();
+    private final Map<Long, BigDecimal> decimalReserved = new HashMap<>();
+    private final Map<Long, Running> moneyBalances = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < EVENTS; i++) {
+            // As decoded from the wire: scale 2, ids boxed once per event
+            accountIds[i] = 1_000_000L + random.nextInt(ACCOUNTS);
+            amounts[i] = BigDecimal.valueOf(1 + random.nextInt(50_000), 2);
+            debits[i] = random.nextBoolean();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void loadBalances() {
+        for (long id = 1_000_000L; id < 1_000_000L + ACCOUNTS; id++) {
+            decimalBalances.put(id, new BigDecimal("10000.00"));
+            decimalReserved.put(id, new BigDecimal("250.00"));
+            moneyBalances.put(id, new Running(1_000_000, 25_000));
+        }
+    }
+
+    @Benchmark
+    public int bigDecimal() {
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        int rejected = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            Long id = accountIds[i];
+            BigDecimal amount = amounts[i];
+            if (debits[i]) {
+                if (decimalBalances.get(id).subtract(decimalReserved.get(id)).compareTo(amount) < 0) {
+                    rejected++;
+                    continue;
+                }
+                amount = amount.negate();
+            }
+            decimalBalances.merge(id, amount, BigDecimal::add);
+            deltas.merge(id, amount, BigDecimal::add);
+        }
+        return rejected + deltas.size();
+    }
+
+    @Benchmark
+    public int money() {
+        int rejected = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            Running running = moneyBalances.get(accountIds[i]);
+            Money amount = Money.of(amounts[i], CURRENCY);
+            if (debits[i]) {
+                if (running.balance - running.reserved < amount.getMinorUnits()) {
+                    rejected++;
+                    continue;
+                }
+                amount = amount.negate();
+            }
+            running.balance = Math.addExact(running.balance, amount.getMinorUnits());
+            running.delta = Math.addExact(running.delta, amount.getMinorUnits());
+        }
+        return rejected;
+    }
+
+    // Mirrors AccountService.RunningBalance
+    private static final class Running {
+        private long balance;
+        private final long reserved;
+        private long delta;
+
+        private Running(long balance, long reserved) {
+            this.balance = balance;
+            this.reserved = reserved;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MoneyArithmeticBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.benchmark;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.example.common.TransactionEvent;
+import org.example.common.TransactionEventDeserializer;
+import org.example.common.TransactionEventSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The transaction-events value path: bank-common's binary codec against the
+ * Spring {@code JsonSerializer}/{@code JsonDeserializer} pair it replaced,
+ * configured as before (type headers, all packages trusted). {@link #main}
+ * prints the encoded size per event before running.
+ *
+ * <pre>
+ * gradle :account-service:benchmark -Pbenchmark=TransactionEventCodecBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionEventCodecBenchmark {
+
+    private static final String TOPIC = "transaction-events";
+
+    private final TransactionEventSerializer binarySerializer = new TransactionEventSerializer();
+    private final TransactionEventDeserializer binaryDeserializer = new TransactionEventDeserializer();
+    private JsonSerializer<TransactionEvent> jsonSerializer;
+    private JsonDeserializer<TransactionEvent> jsonDeserializer;
+
+    private TransactionEvent event;
+    private byte[] binary;
+    private byte[] json;
+    private RecordHeaders jsonHeaders;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>(TransactionEvent.class);
+        jsonDeserializer.addTrustedPackages("*");
+
+        event = sampleEvent();
+        binary = binarySerializer.serialize(TOPIC, event);
+        jsonHeaders = new RecordHeaders();
+        json = jsonSerializer.serialize(TOPIC, jsonHeaders, event);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public TransactionEvent deserializeBinary() {
+        return binaryDeserializer.deserialize(TOPIC, binary);
+    }
+
+    @Benchmark
+    public TransactionEvent deserializeJson() {
+        return jsonDeserializer.deserialize(TOPIC, jsonHeaders, json);
+    }
+
+    private static TransactionEvent sampleEvent() {
+        TransactionEvent event = new TransactionEvent(1_234_567L, 42_001L, new BigDecimal("1250.75"), "TRANSFER",
+                "2024-05-01T12:30:45.123456", 42_002L);
+        event.setHoldId(98_765L);
+        return event;
+    }
+
+    public static void main(String[] args) throws Exception {
+        TransactionEvent event = sampleEvent();
+        RecordHeaders headers = new RecordHeaders();
+        byte[] json = new JsonSerializer<TransactionEvent>().serialize(TOPIC, headers, event);
+        int headerBytes = 0;
+        for (var header : headers) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("bytes/event: binary %d, json %d (+%d in type headers)%n",
+                new TransactionEventSerializer().serialize(TOPIC, event).length, json.length, headerBytes);
+
+        new Runner(new OptionsBuilder()
+                .include(TransactionEventCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe bloom filter over longs and strings: {@link #mightContain} never
+ * answers false for a value that was {@link #put}, and answers true for an absent
+ * one with about the configured probability while the filter holds no more than
+ * the expected number of values. Bits are set with atomic ORs, so concurrent puts
+ * and reads need no lock.
+ *
+ * <p>Used by account-service for processed transaction ids and by user-service
+ * for usernames and emails. A filter holds one kind of value: a long and a string
+ * that hash alike would share bits.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        // Optimal sizing: m = -n ln p / (ln 2)^2 bits and k = m/n ln 2 hash functions
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = Math.toIntExact(Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(long value) {
+        set(mix(value));
+    }
+
+    public void put(String value) {
+        set(hash(value));
+    }
+
+    public boolean mightContain(long value) {
+        return test(mix(value));
+    }
+
+    public boolean mightContain(String value) {
+        return test(hash(value));
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    // Double hashing: the k bit positions are h1 + i * h2, with h2 odd
+    private void set(long h1) {
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndUpdate(word, w -> w | mask);
+            }
+        }
+    }
+
+    private boolean test(long h1) {
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a over the chars, then the finalizer so every bit depends on every char
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    // MurmurHash3 fmix64, so sequential ids spread over the whole bit array
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB93FE53A87CDL;
+        return h ^ (h >>> 33);
+    }
+}
@@ -1,15 +1,25 @@
-package org.example.model;
+package org.example.common;
 
 import java.math.BigDecimal;
 
+/**
+ * Payload of the {@code transaction-events} topic, keyed by source account id.
+ * Produced by transaction-service, consumed by account-service; on the wire it
+ * is encoded by {@link TransactionEventCodec}.
+ */
 public class TransactionEvent {
+
+    public static final String DEPOSIT = "DEPOSIT";
+    public static final String WITHDRAW = "WITHDRAW";
+    public static final String TRANSFER = "TRANSFER";
+
     private Long transactionId;
     private Long accountId;
     private BigDecimal amount;
-    private String type;   // "DEPOSIT", "WITHDRAW", "TRANSFER"
-    private String timestamp;
+    private String type;   // DEPOSIT, WITHDRAW, TRANSFER
+    private String timestamp;   // ISO-8601 local date-time
     private Long destinationAccountId;
-
+    private Long holdId;   // funds reserved for this withdrawal/transfer, captured when it is applied
 
     public TransactionEvent() {}
 
@@ -19,7 +29,7 @@ public class TransactionEvent {
         this.amount = amount;
         this.type = type;
         this.timestamp = timestamp;
-        this.destinationAccountId=destinationAccountId;
+        this.destinationAccountId = destinationAccountId;
     }
 
     public Long getTransactionId() {
@@ -54,7 +64,27 @@ public class TransactionEvent {
         this.type = type;
     }
 
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(String timestamp) {
+        this.timestamp = timestamp;
+    }
+
     public Long getDestinationAccountId() {
         return destinationAccountId;
     }
+
+    public void setDestinationAccountId(Long destinationAccountId) {
+        this.destinationAccountId = destinationAccountId;
+    }
+
+    public Long getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(Long holdId) {
+        this.holdId = holdId;
+    }
 }
@@ -0,0 +1,256 @@
+package org.example.common;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Versioned binary form of {@link TransactionEvent}. Big-endian, fixed width:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     1  version of the writer (currently 1)
+ *      1     1  length of the body that follows (v1: 52)
+ *      2     2  presence bits, one per field below, in order; a clear bit means null
+ *      4     8  transactionId
+ *     12     8  accountId
+ *     20     8  amount, unscaled value
+ *     28     1  amount, scale
+ *     29     1  type: 1 DEPOSIT, 2 WITHDRAW, 3 TRANSFER
+ *     30     8  timestamp, microseconds since the epoch of the local date-time read as UTC
+ *     38     8  destinationAccountId
+ *     46     8  holdId
+ * </pre>
+ *
+ * New versions may only append fields. A reader takes the fields it knows from
+ * the body and skips the rest, so an older reader accepts a newer writer's
+ * events; fields beyond the end of an older writer's body decode as null.
+ */
+public final class TransactionEventCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = 2;
+    private static final int BODY_SIZE = 52;
+    public static final int ENCODED_SIZE = HEADER_SIZE + BODY_SIZE;
+
+    private static final int TRANSACTION_ID = 0;
+    private static final int ACCOUNT_ID = 1;
+    private static final int AMOUNT = 2;
+    private static final int TYPE = 3;
+    private static final int TIMESTAMP = 4;
+    private static final int DESTINATION_ACCOUNT_ID = 5;
+    private static final int HOLD_ID = 6;
+
+    private static final String[] TYPES = {null, TransactionEvent.DEPOSIT, TransactionEvent.WITHDRAW, TransactionEvent.TRANSFER};
+
+    private TransactionEventCodec() {
+    }
+
+    public static byte[] encode(TransactionEvent event) {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_SIZE);
+        buffer.put(VERSION);
+        buffer.put((byte) BODY_SIZE);
+
+        int presence = 0;
+        presence |= bit(TRANSACTION_ID, event.getTransactionId() != null);
+        presence |= bit(ACCOUNT_ID, event.getAccountId() != null);
+        presence |= bit(AMOUNT, event.getAmount() != null);
+        presence |= bit(TYPE, event.getType() != null);
+        presence |= bit(TIMESTAMP, event.getTimestamp() != null);
+        presence |= bit(DESTINATION_ACCOUNT_ID, event.getDestinationAccountId() != null);
+        presence |= bit(HOLD_ID, event.getHoldId() != null);
+        buffer.putShort((short) presence);
+
+        buffer.putLong(orZero(event.getTransactionId()));
+        buffer.putLong(orZero(event.getAccountId()));
+        putAmount(buffer, event.getAmount());
+        buffer.put(typeCode(event.getType()));
+        buffer.putLong(event.getTimestamp() == null ? 0 : toEpochMicros(event.getTimestamp()));
+        buffer.putLong(orZero(event.getDestinationAccountId()));
+        buffer.putLong(orZero(event.getHoldId()));
+        return buffer.array();
+    }
+
+    public static TransactionEvent decode(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            buffer.get(); // version: layouts only grow, so the body length is all a reader needs
+            int bodySize = Byte.toUnsignedInt(buffer.get());
+            if (buffer.remaining() < bodySize) {
+                throw new IllegalArgumentException("Transaction event truncated: body of " + bodySize
+                        + " bytes, " + buffer.remaining() + " present");
+            }
+            ByteBuffer body = buffer.slice(buffer.position(), bodySize);
+
+            int presence = body.remaining() >= Short.BYTES ? Short.toUnsignedInt(body.getShort()) : 0;
+            TransactionEvent event = new TransactionEvent();
+            event.setTransactionId(readLong(body, presence, TRANSACTION_ID));
+            event.setAccountId(readLong(body, presence, ACCOUNT_ID));
+            Long unscaled = readLong(body, presence, AMOUNT);
+            Byte scale = readByte(body, presence, AMOUNT);
+            if (unscaled != null && scale != null) {
+                event.setAmount(BigDecimal.valueOf(unscaled, scale));
+            }
+            Byte type = readByte(body, presence, TYPE);
+            if (type != null) {
+                // A type added by a newer writer decodes as null, which consumers reject as unknown
+                event.setType(type > 0 && type < TYPES.length ? TYPES[type] : null);
+            }
+            Long timestamp = readLong(body, presence, TIMESTAMP);
+            if (timestamp != null) {
+                event.setTimestamp(fromEpochMicros(timestamp));
+            }
+            event.setDestinationAccountId(readLong(body, presence, DESTINATION_ACCOUNT_ID));
+            event.setHoldId(readLong(body, presence, HOLD_ID));
+            return event;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Transaction event truncated", e);
+        }
+    }
+
+    // Null when the field's presence bit is clear or the body ends before it (older writer)
+    private static Long readLong(ByteBuffer body, int presence, int field) {
+        if (body.remaining() < Long.BYTES) {
+            return null;
+        }
+        long value = body.getLong();
+        return has(presence, field) ? value : null;
+    }
+
+    private static Byte readByte(ByteBuffer body, int presence, int field) {
+        if (!body.hasRemaining()) {
+            return null;
+        }
+        byte value = body.get();
+        return has(presence, field) ? value : null;
+    }
+
+    private static void putAmount(ByteBuffer buffer, BigDecimal amount) {
+        if (amount == null) {
+            buffer.putLong(0);
+            buffer.put((byte) 0);
+            return;
+        }
+        BigInteger unscaled = amount.unscaledValue();
+        if (unscaled.bitLength() > 63 || amount.scale() < Byte.MIN_VALUE || amount.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Amount out of range for the binary codec: " + amount);
+        }
+        buffer.putLong(unscaled.longValue());
+        buffer.put((byte) amount.scale());
+    }
+
+    private static byte typeCode(String type) {
+        if (type == null) {
+            return 0;
+        }
+        for (int i = 1; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) {
+                return (byte) i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type: " + type);
+    }
+
+    private static long toEpochMicros(String timestamp) {
+        long micros = parseIsoLocalMicros(timestamp);
+        if (micros != Long.MIN_VALUE) {
+            return micros;
+        }
+        // Anything the fast path doesn't cover (e.g. a year beyond 9999)
+        try {
+            LocalDateTime time = LocalDateTime.parse(timestamp);
+            return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Timestamp is not an ISO local date-time: " + timestamp, e);
+        }
+    }
+
+    /**
+     * {@code LocalDateTime.toString()}'s layout, {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]},
+     * read by hand; DateTimeFormatter costs more than the rest of the encoding.
+     * Long.MIN_VALUE when the text has any other shape.
+     */
+    private static long parseIsoLocalMicros(String text) {
+        int length = text.length();
+        if (length < 16 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' || text.charAt(13) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = 0;
+        int micros = 0;
+        if (length > 16) {
+            if (length < 19 || text.charAt(16) != ':') {
+                return Long.MIN_VALUE;
+            }
+            second = digits(text, 17, 2);
+            if (length > 19) {
+                int fractionDigits = length - 20;
+                if (text.charAt(19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                    return Long.MIN_VALUE;
+                }
+                int fraction = digits(text, 20, fractionDigits);
+                if (fraction < 0) {
+                    return Long.MIN_VALUE;
+                }
+                // Scale the fraction to nanoseconds, then truncate to micros
+                for (int i = fractionDigits; i < 9; i++) {
+                    fraction *= 10;
+                }
+                micros = fraction / 1_000;
+            }
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+        long epochDay;
+        try {
+            epochDay = LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+        long seconds = epochDay * 86_400L + hour * 3_600L + minute * 60L + second;
+        return seconds * 1_000_000L + micros;
+    }
+
+    // Decimal value of text[from, from + count), or -1 on a non-digit
+    private static int digits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static String fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC).toString();
+    }
+
+    private static int bit(int field, boolean present) {
+        return present ? 1 << field : 0;
+    }
+
+    private static boolean has(int presence, int field) {
+        return (presence & (1 << field)) != 0;
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+}
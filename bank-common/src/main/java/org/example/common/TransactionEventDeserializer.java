@@ -0,0 +1,35 @@
+package org.example.common;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Kafka value deserializer for {@link TransactionEventCodec}'s binary form. A
+ * record starting with '{' was written as JSON before the codec existed; it is
+ * still read (into this fixed class, never a type named by the record) so events
+ * already on the topic survive the upgrade.
+ */
+public class TransactionEventDeserializer implements Deserializer<TransactionEvent> {
+
+    private static final ObjectMapper LEGACY_JSON = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    public TransactionEvent deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            if (data[0] == '{') {
+                return LEGACY_JSON.readValue(data, TransactionEvent.class);
+            }
+            return TransactionEventCodec.decode(data);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Unreadable transaction event on " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.common;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/** Kafka value serializer writing {@link TransactionEventCodec}'s binary form. */
+public class TransactionEventSerializer implements Serializer<TransactionEvent> {
+
+    @Override
+    public byte[] serialize(String topic, TransactionEvent event) {
+        if (event == null) {
+            return null;
+        }
+        try {
+            return TransactionEventCodec.encode(event);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot encode transaction event " + event.getTransactionId(), e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverForgetsWhatWasPut() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+            filter.put("user" + id);
+        }
+        for (long id = 1; id <= 10_000; id++) {
+            assertTrue(filter.mightContain(id));
+            assertTrue(filter.mightContain("user" + id));
+        }
+    }
+
+    @Test
+    void falsePositivesStayNearTheConfiguredRate() {
+        BloomFilter ids = new BloomFilter(100_000, 0.01);
+        BloomFilter names = new BloomFilter(100_000, 0.01);
+        for (long id = 0; id < 100_000; id++) {
+            ids.put(id);
+            names.put("user" + id);
+        }
+
+        int idHits = 0;
+        int nameHits = 0;
+        for (long id = 100_000; id < 200_000; id++) {
+            idHits += ids.mightContain(id) ? 1 : 0;
+            nameHits += names.mightContain("user" + id) ? 1 : 0;
+        }
+        // 1% of 100k probes, with room for the variance of one run
+        assertTrue(idHits < 1_500, "id false positives: " + idHits);
+        assertTrue(nameHits < 1_500, "name false positives: " + nameHits);
+    }
+
+    @Test
+    void sizesItselfFromExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+
+        // m = -n ln p / (ln 2)^2, about 9.59 bits per value, rounded up to whole words
+        assertEquals(9_585_088, filter.bitCount());
+        assertEquals(7, filter.hashCount());
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void convertsAtTheColumnScale() {
+        Money money = Money.of(new BigDecimal("12.3"), "USD");
+
+        assertEquals(1230, money.getMinorUnits());
+        assertEquals(new BigDecimal("12.30"), money.toBigDecimal());
+        assertEquals("12.30 USD", money.toString());
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.001"), "USD"));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e17"), "USD"));
+    }
+
+    @Test
+    void arithmeticIsExactAndSingleCurrency() {
+        Money ten = Money.ofMinor(1000, "EUR");
+
+        assertEquals(Money.ofMinor(1250, "EUR"), ten.plus(Money.ofMinor(250, "EUR")));
+        assertEquals(Money.ofMinor(-250, "EUR"), Money.ofMinor(250, "EUR").negate());
+        assertTrue(ten.minus(Money.ofMinor(1001, "EUR")).signum() < 0);
+        assertSame(ten, ten.plus(Money.zero("EUR")));
+
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, "EUR").plus(Money.ofMinor(1, "EUR")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE, "EUR").negate());
+        assertThrows(IllegalArgumentException.class, () -> ten.plus(Money.ofMinor(1, "USD")));
+        assertThrows(IllegalArgumentException.class, () -> ten.compareTo(Money.ofMinor(1, "USD")));
+    }
+
+    @Test
+    void jsonCarriesDecimalAmountAndCurrency() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        String json = mapper.writeValueAsString(Money.ofMinor(123456, "USD"));
+        assertEquals("{\"amount\":1234.56,\"currency\":\"USD\"}", json);
+        assertEquals(Money.ofMinor(123456, "USD"), mapper.readValue(json, Money.class));
+    }
+}
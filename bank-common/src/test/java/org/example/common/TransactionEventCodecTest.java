@@ -0,0 +1,107 @@
+package org.example.common;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionEventCodecTest {
+
+    private final TransactionEventSerializer serializer = new TransactionEventSerializer();
+    private final TransactionEventDeserializer deserializer = new TransactionEventDeserializer();
+
+    @Test
+    void roundTripsEveryField() {
+        TransactionEvent event = new TransactionEvent(42L, 7L, new BigDecimal("1234.56"), "TRANSFER",
+                "2024-05-01T12:30:45.123456", 9L);
+        event.setHoldId(11L);
+
+        byte[] bytes = serializer.serialize("transaction-events", event);
+        assertEquals(TransactionEventCodec.ENCODED_SIZE, bytes.length);
+
+        TransactionEvent decoded = deserializer.deserialize("transaction-events", bytes);
+        assertEquals(42L, decoded.getTransactionId());
+        assertEquals(7L, decoded.getAccountId());
+        assertEquals(new BigDecimal("1234.56"), decoded.getAmount());
+        assertEquals("TRANSFER", decoded.getType());
+        assertEquals("2024-05-01T12:30:45.123456", decoded.getTimestamp());
+        assertEquals(9L, decoded.getDestinationAccountId());
+        assertEquals(11L, decoded.getHoldId());
+    }
+
+    @Test
+    void roundTripsTimestampsAtMicrosecondPrecision() {
+        for (String timestamp : new String[]{"2024-05-01T12:30", "1969-12-31T23:59:59.5", "2024-02-29T00:00:00.000001",
+                "+12024-01-01T00:00"}) {
+            TransactionEvent event = new TransactionEvent(1L, 2L, BigDecimal.ONE, "DEPOSIT", timestamp, null);
+            assertEquals(LocalDateTime.parse(timestamp).toString(),
+                    TransactionEventCodec.decode(TransactionEventCodec.encode(event)).getTimestamp());
+        }
+        TransactionEvent nanos = new TransactionEvent(1L, 2L, BigDecimal.ONE, "DEPOSIT", "2024-05-01T12:30:45.123456789", null);
+        assertEquals("2024-05-01T12:30:45.123456", TransactionEventCodec.decode(TransactionEventCodec.encode(nanos)).getTimestamp());
+        TransactionEvent invalid = new TransactionEvent(1L, 2L, BigDecimal.ONE, "DEPOSIT", "2024-02-30T00:00", null);
+        assertThrows(IllegalArgumentException.class, () -> TransactionEventCodec.encode(invalid));
+    }
+
+    @Test
+    void keepsNullsDistinctFromZero() {
+        TransactionEvent decoded = TransactionEventCodec.decode(TransactionEventCodec.encode(
+                new TransactionEvent(null, 0L, null, "DEPOSIT", null, null)));
+
+        assertNull(decoded.getTransactionId());
+        assertEquals(0L, decoded.getAccountId());
+        assertNull(decoded.getAmount());
+        assertNull(decoded.getTimestamp());
+        assertNull(decoded.getDestinationAccountId());
+        assertNull(decoded.getHoldId());
+    }
+
+    @Test
+    void toleratesOlderAndNewerWriters() {
+        TransactionEvent event = new TransactionEvent(1L, 2L, BigDecimal.TEN, "WITHDRAW", null, null);
+        event.setHoldId(3L);
+        byte[] current = TransactionEventCodec.encode(event);
+
+        // An older writer's body stops before holdId
+        byte[] older = Arrays.copyOf(current, current.length - Long.BYTES);
+        older[1] = (byte) (older.length - 2);
+        TransactionEvent fromOlder = TransactionEventCodec.decode(older);
+        assertEquals(1L, fromOlder.getTransactionId());
+        assertNull(fromOlder.getHoldId());
+
+        // A newer writer appends a field this reader doesn't know
+        byte[] newer = ByteBuffer.allocate(current.length + 4).put(current).putInt(99).array();
+        newer[0] = 2;
+        newer[1] = (byte) (newer.length - 2);
+        TransactionEvent fromNewer = TransactionEventCodec.decode(newer);
+        assertEquals(3L, fromNewer.getHoldId());
+        assertEquals("WITHDRAW", fromNewer.getType());
+    }
+
+    @Test
+    void readsLegacyJsonRecords() {
+        byte[] json = "{\"transactionId\":5,\"accountId\":6,\"amount\":12.50,\"type\":\"DEPOSIT\",\"unknown\":true}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        TransactionEvent decoded = deserializer.deserialize("transaction-events", json);
+        assertEquals(5L, decoded.getTransactionId());
+        assertEquals(new BigDecimal("12.50"), decoded.getAmount());
+    }
+
+    @Test
+    void rejectsWhatItCannotRepresent() {
+        TransactionEvent huge = new TransactionEvent(1L, 2L, new BigDecimal("1e30").setScale(2), "DEPOSIT", null, null);
+        assertThrows(SerializationException.class, () -> serializer.serialize("transaction-events", huge));
+        TransactionEvent unknownType = new TransactionEvent(1L, 2L, BigDecimal.ONE, "REFUND", null, null);
+        assertThrows(SerializationException.class, () -> serializer.serialize("transaction-events", unknownType));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("transaction-events", new byte[]{1, 52, 0}));
+    }
+}
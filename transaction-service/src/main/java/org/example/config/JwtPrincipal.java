@@ -0,0 +1,29 @@
+package org.example.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Identity carried by a verified JWT; stored as the principal of the security context
+ * so controllers never parse the token again. Roles come from the token's
+ * {@code roles} claim; end-user tokens carry none.
+ */
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal {
+
+    private final String username;
+
+    private final Long userId;
+
+    private final Instant expiresAt;
+
+    private final Set<String> roles;
+
+    public JwtPrincipal(String username, Long userId, Instant expiresAt) {
+        this(username, userId, expiresAt, Set.of());
+    }
+}
@@ -1,22 +1,37 @@
 package org.example.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.crypto.SecretKey;
 
 @Component
 public class JwtUtil {
     private final SecretKey secret = Keys.hmacShaKeyFor("secretkey1234567890secretkey1234567890".getBytes());
     private final long expiration = 1000 * 60 * 60 * 10; // 10 hours
-    Logger logger = LoggerFactory.getLogger(getClass());
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(secret).build();
+    private final Cache<String, JwtPrincipal> verifiedTokens;
 
+    public JwtUtil(@Value("${jwt.claims-cache.maximum-size:10000}") long claimsCacheSize) {
+        this.verifiedTokens = buildVerifiedTokenCache(claimsCacheSize);
+    }
 
     public String generateToken(String username) {
         return Jwts.builder()
@@ -27,20 +42,82 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its identity. Verified claims are cached under the
+     * token's SHA-256 digest until {@code exp}, so repeat requests with the same token
+     * skip the signature check and claims decoding.
+     */
+    public JwtPrincipal verify(String token) {
+        String key = digest(token);
+        JwtPrincipal principal = verifiedTokens.getIfPresent(key);
+        if (principal == null) {
+            principal = parse(token);
+            verifiedTokens.put(key, principal);
+        }
+        return principal;
+    }
+
+    /**
+     * Full signature check and claims decoding, bypassing the cache.
+     */
+    public JwtPrincipal parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Object userId = claims.get("userId");
+        Date expiresAt = claims.getExpiration();
+        return new JwtPrincipal(
+                claims.getSubject(),
+                userId == null ? null : Long.valueOf(userId.toString()),
+                expiresAt == null ? null : expiresAt.toInstant(),
+                roles(claims.get("roles")));
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parser()
-                .setSigningKey(secret)
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verify(token).getUsername();
     }
+
     public Long extractUserId(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(secret)
-                .parseClaimsJws(token)
-                .getBody();
-        logger.info("Claims map after adding userId: {}", claims);
-        return Long.valueOf(claims.get("userId").toString());
+        return verify(token).getUserId();
     }
 
+    private static Set<String> roles(Object claim) {
+        if (!(claim instanceof Collection<?> roles)) {
+            return Set.of();
+        }
+        return roles.stream().map(String::valueOf).collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Cache<String, JwtPrincipal> buildVerifiedTokenCache(long maximumSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+                        if (principal.getExpiresAt() == null) {
+                            return Long.MAX_VALUE;
+                        }
+                        long millisLeft = principal.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 }
@@ -0,0 +1,22 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    /**
+     * Bounded scheduler for the blocking tail of the transaction pipeline
+     * (JPA save and Kafka publish), so request threads never wait on them.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler transactionScheduler(
+            @Value("${transaction.scheduler.thread-cap:#{T(java.lang.Runtime).getRuntime().availableProcessors() * 4}}") int threadCap,
+            @Value("${transaction.scheduler.queued-task-cap:10000}") int queuedTaskCap) {
+        return Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "tx-persist");
+    }
+}
@@ -3,6 +3,7 @@ package org.example.config;
 import org.example.service.TransactionService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -14,6 +15,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 public class SecurityConfig {
 
+    static final String IMPORT_ROLE = "SERVICE";
+
     private final JwtUtil jwtUtil;
     private final TransactionService transactionService;
 
@@ -32,6 +35,8 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Bulk history import is for migration tooling, not end users
+                        .requestMatchers(HttpMethod.POST, "/transactions/import").hasRole(IMPORT_ROLE)
                         .requestMatchers("/transactions/**").permitAll()  // allow transactions endpoints
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,18 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+public class WebClientConfig {
+
+    @Bean
+    public WebClient accountServiceClient(WebClient.Builder webClientBuilder,
+                                          @Value("${account-service.url:http://account-service:8080/accounts}") String accountServiceUrl) {
+        return webClientBuilder
+                .baseUrl(accountServiceUrl)
+                .build();
+    }
+}
@@ -1,13 +1,19 @@
 package org.example.controller;
 
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
-import org.example.config.JwtUtil;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.example.config.JwtPrincipal;
 import org.example.model.Transaction;
 import org.example.service.TransactionService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -15,53 +21,72 @@ import java.util.List;
 @RequestMapping("/transactions")
 public class TransactionController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_IMPORT = 50_000;
+
     private final TransactionService transactionService;
-    private final JwtUtil jwtUtil;
 
-    public TransactionController(TransactionService transactionService, JwtUtil jwtUtil) {
+    public TransactionController(TransactionService transactionService) {
         this.transactionService = transactionService;
-        this.jwtUtil = jwtUtil;
     }
 
     @PostMapping
-    public ResponseEntity<Transaction> createTransaction(
+    public Mono<ResponseEntity<Transaction>> createTransaction(
             @Valid @RequestBody Transaction tx,  // Add @Valid
-            HttpServletRequest request) {
+            @AuthenticationPrincipal JwtPrincipal principal) {  // verified once by JwtAuthenticationFilter
 
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.badRequest().build();
+        if (principal == null || principal.getUserId() == null || principal.getUserId() <= 0) {
+            return Mono.just(ResponseEntity.badRequest().build());
         }
 
-        String token = authHeader.substring(7); // Remove "Bearer "
-        Long userId = jwtUtil.extractUserId(token);
+        return transactionService.createTransaction(tx, principal.getUserId())
+                .map(ResponseEntity::ok);
+    }
 
-        if (userId == null || userId <= 0) {
-            return ResponseEntity.badRequest().build();
-        }
+    @PostMapping("/import")
+    public ResponseEntity<Integer> importTransactions(
+            @RequestBody @NotEmpty @Size(max = MAX_IMPORT, message = "At most " + MAX_IMPORT + " transactions per import")
+            List<@Valid Transaction> transactions,
+            @AuthenticationPrincipal JwtPrincipal principal) {  // SERVICE role, enforced by SecurityConfig
 
-        Transaction createdTx = transactionService.createTransaction(tx, userId);
-        return ResponseEntity.ok(createdTx);
+        return ResponseEntity.ok(transactionService.importTransactions(transactions, principal.getUsername()));
     }
 
+    /**
+     * One keyset page of an account's history, oldest first. Pass the
+     * {@code X-Next-Cursor} header of a full page as {@code after} to get the next one.
+     */
     @GetMapping("/account/{accountId}")
     public ResponseEntity<List<Transaction>> getTransactionsByAccount(
             @PathVariable @Min(1) Long accountId,  //  Validate path variable
-            HttpServletRequest request) {
+            @RequestParam(required = false) @Min(0) Long after,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit,
+            @AuthenticationPrincipal JwtPrincipal principal) {
 
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (principal == null || principal.getUserId() == null || principal.getUserId() <= 0) {
             return ResponseEntity.badRequest().build();
         }
 
-        String token = authHeader.substring(7);
-        Long userId = jwtUtil.extractUserId(token);
+        List<Transaction> transactions = transactionService.getTransactionsByAccount(accountId, principal.getUserId(), after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (transactions.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(transactions.get(transactions.size() - 1).getId()));
+        }
+        return response.body(transactions);
+    }
+
+    @GetMapping(value = "/account/{accountId}/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamTransactionsByAccount(
+            @PathVariable @Min(1) Long accountId,
+            @AuthenticationPrincipal JwtPrincipal principal) {
 
-        if (userId == null || userId <= 0) {
+        if (principal == null || principal.getUserId() == null || principal.getUserId() <= 0) {
             return ResponseEntity.badRequest().build();
         }
 
-        List<Transaction> transactions = transactionService.getTransactionsByAccount(accountId, userId);
-        return ResponseEntity.ok(transactions);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(transactionService.streamTransactionsByAccount(accountId, principal.getUserId()));
     }
 }
\ No newline at end of file
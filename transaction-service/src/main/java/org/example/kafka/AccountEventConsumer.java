@@ -0,0 +1,36 @@
+package org.example.kafka;
+
+import org.example.model.AccountEvent;
+import org.example.service.AccountOwnershipCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AccountEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountEventConsumer.class);
+
+    private final AccountOwnershipCache ownershipCache;
+
+    public AccountEventConsumer(AccountOwnershipCache ownershipCache) {
+        this.ownershipCache = ownershipCache;
+    }
+
+    // A random group per instance: every instance holds its own cache and needs every event
+    @KafkaListener(topics = "account-events",
+            groupId = "transaction-service-#{T(java.util.UUID).randomUUID()}",
+            containerFactory = "accountEventListenerFactory")
+    public void consume(AccountEvent event) {
+        if (event == null || event.getAccountId() == null) {
+            return;
+        }
+        // Balance movements never change ownership; anything else is a lifecycle change
+        if (AccountEvent.DEPOSITED.equals(event.getType()) || AccountEvent.WITHDRAWN.equals(event.getType())) {
+            return;
+        }
+        logger.info("Invalidating cached owner of account {} after {} event", event.getAccountId(), event.getType());
+        ownershipCache.invalidate(event.getAccountId());
+    }
+}
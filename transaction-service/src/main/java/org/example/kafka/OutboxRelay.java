@@ -0,0 +1,135 @@
+package org.example.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.common.TransactionEvent;
+import org.example.model.OutboxEvent;
+import org.example.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox to Kafka. Each pass takes a Postgres advisory lock, claims the
+ * oldest batch, sends it, flushes the producer once, and marks the batch sent in
+ * the same DB transaction. If any send fails the transaction rolls back and the
+ * whole batch is retried on the next pass, so delivery is at-least-once.
+ *
+ * <p>Only one relay runs at a time across all instances: the others find the lock
+ * taken and skip their pass. Two relays would each send a different batch, and a
+ * failed batch would be resent after a newer one had gone out, breaking the
+ * per-account order consumers rely on (events are keyed by account).
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    // Advisory lock key shared by every instance: "outbox" in ASCII
+    private static final long RELAY_LOCK_KEY = 0x6F7574626F78L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, TransactionEvent> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout:PT30S}") Duration sendTimeout,
+                       @Value("${outbox.relay.retention:PT1H}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            // Keep draining while batches come back full; a short batch means we caught up
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Outbox relay pass failed, batch will be retried: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.purge-interval-ms:60000}")
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} relayed outbox events", purged);
+        }
+    }
+
+    private int relayBatch() {
+        if (!outboxEventRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            // Another instance is relaying
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxEventRepository.claimPending(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            sends.add(kafkaTemplate.send(outboxEvent.getTopic(), outboxEvent.getMessageKey(), toEvent(outboxEvent)));
+            ids.add(outboxEvent.getId());
+        }
+        kafkaTemplate.flush();
+        awaitAll(sends);
+
+        outboxEventRepository.markSent(ids, LocalDateTime.now());
+        logger.info("Relayed {} outbox events", batch.size());
+        return batch.size();
+    }
+
+    private TransactionEvent toEvent(OutboxEvent outboxEvent) {
+        try {
+            return objectMapper.readValue(outboxEvent.getPayload(), TransactionEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable outbox payload for event " + outboxEvent.getId(), e);
+        }
+    }
+
+    private void awaitAll(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture<?>[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while relaying outbox batch", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Kafka did not acknowledge outbox batch", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.model;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of account-service's {@code POST /accounts/{id}/holds}: either the
+ * reserved funds' hold id, or why nothing was reserved.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountHold {
+
+    public static final String HELD = "HELD";
+    /** Ledger engine mode: funds checked but not reserved, so there is no hold to capture or release. */
+    public static final String FUNDS_AVAILABLE = "FUNDS_AVAILABLE";
+    public static final String ACCOUNT_NOT_FOUND = "ACCOUNT_NOT_FOUND";
+    public static final String NOT_OWNER = "NOT_OWNER";
+    public static final String DESTINATION_NOT_FOUND = "DESTINATION_NOT_FOUND";
+    public static final String CURRENCY_MISMATCH = "CURRENCY_MISMATCH";
+    public static final String INSUFFICIENT_FUNDS = "INSUFFICIENT_FUNDS";
+
+    private String status;
+
+    private Long holdId;
+
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,19 @@
+package org.example.model;
+
+import lombok.*;
+
+/**
+ * The fields of account-service's {@code GET /accounts/{id}} this service relies on.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSummary {
+
+    private Long id;
+
+    private Long userId;
+
+    private String currency;
+}
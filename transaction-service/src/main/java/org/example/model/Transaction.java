@@ -9,7 +9,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_account_id_id", columnList = "accountId, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,6 +19,7 @@ import java.time.LocalDateTime;
 @Builder
 public class Transaction {
 
+    // Not a pooled sequence: the history keyset cursor assumes ids grow in insert order
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -27,6 +30,7 @@ public class Transaction {
 
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Digits(integer = 16, fraction = 2, message = "Amount must have at most 16 digits and 2 decimals")
     private BigDecimal amount;
 
     @NotNull(message = "Type is required")
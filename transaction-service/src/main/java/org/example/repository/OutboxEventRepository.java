@@ -0,0 +1,39 @@
+package org.example.repository;
+
+import org.example.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Takes the relay's transaction-scoped advisory lock, without waiting. Only
+     * the instance holding it may relay, so events of one account are never
+     * sent by two relays at once; the lock is released at commit or rollback.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(@Param("key") long key);
+
+    /**
+     * Claims the oldest pending events, in id order. Only called under the relay
+     * lock, so the row locks just guard against a concurrent purge.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE sent_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<OutboxEvent> claimPending(@Param("limit") int limit);
+
+    @Modifying
+    @Query("update OutboxEvent o set o.sentAt = :sentAt where o.id in :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("delete from OutboxEvent o where o.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,12 +1,35 @@
 package org.example.repository;
 
 import org.example.model.Transaction;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByAccountId(Long accountId);
+
+    /**
+     * One keyset page of an account's history: rows after the cursor id, served by
+     * the (account_id, id) index without an OFFSET scan.
+     */
+    List<Transaction> findByAccountIdAndIdGreaterThanOrderByIdAsc(Long accountId, Long afterId, Limit limit);
+
+    /**
+     * Whole history as a server-side cursor. Must be consumed inside a transaction,
+     * otherwise the driver ignores the fetch size and buffers every row.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Transaction t where t.accountId = :accountId order by t.id")
+    Stream<Transaction> streamByAccountId(@Param("accountId") Long accountId);
 }
@@ -0,0 +1,118 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.model.AccountSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Local accountId → owner userId cache. An account's owner never changes after
+ * creation, so entries are only dropped by size/TTL eviction or when an account
+ * lifecycle event arrives on {@code account-events}.
+ */
+@Component
+public class AccountOwnershipCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountOwnershipCache.class);
+
+    // Ids per multi-get call: account-service takes up to 1000, but they travel
+    // comma-separated in the query string, which Tomcat caps with the headers at 8 KB
+    private static final int MULTI_GET_CHUNK = 500;
+    private static final ParameterizedTypeReference<Map<Long, AccountSummary>> ACCOUNTS_BY_ID =
+            new ParameterizedTypeReference<>() { };
+
+    private final AsyncCache<Long, Long> owners;
+    private final WebClient accountServiceClient;
+
+    public AccountOwnershipCache(WebClient accountServiceClient,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${account-service.ownership-cache.maximum-size:100000}") long maximumSize,
+                                 @Value("${account-service.ownership-cache.ttl:PT10M}") Duration ttl) {
+        this.accountServiceClient = accountServiceClient;
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, owners, "accountOwnership");
+    }
+
+    /**
+     * Owner of the account, or empty if the account does not exist. Misses are
+     * loaded from account-service; concurrent misses for one id share a call.
+     */
+    public Mono<Long> getOwner(Long accountId) {
+        return Mono.fromFuture(() -> owners.get(accountId, (id, executor) -> fetchOwner(id).toFuture()));
+    }
+
+    /**
+     * Owners of the given accounts, keyed by account id; accounts that do not exist
+     * are left out. All misses are loaded with account-service's multi-get
+     * ({@code GET /accounts?ids=}), in chunks of {@value #MULTI_GET_CHUNK} ids.
+     */
+    public Mono<Map<Long, Long>> getOwners(Collection<Long> accountIds) {
+        return Mono.fromFuture(() -> owners.getAll(accountIds, (missing, executor) -> fetchOwners(missing).toFuture()));
+    }
+
+    public Mono<Boolean> isOwner(Long accountId, Long userId) {
+        return getOwner(accountId)
+                .map(owner -> owner.equals(userId))
+                .defaultIfEmpty(false);
+    }
+
+    /** Records an owner learned from another account-service response. */
+    public void put(Long accountId, Long ownerUserId) {
+        owners.put(accountId, CompletableFuture.completedFuture(ownerUserId));
+    }
+
+    public void invalidate(Long accountId) {
+        owners.synchronous().invalidate(accountId);
+    }
+
+    private Mono<Long> fetchOwner(Long accountId) {
+        logger.info("Ownership cache miss for accountId: {}", accountId);
+        return accountServiceClient.get()
+                .uri("/{id}", accountId)
+                .retrieve()
+                .bodyToMono(AccountSummary.class)
+                .map(AccountSummary::getUserId)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+    }
+
+    private Mono<Map<Long, Long>> fetchOwners(Set<? extends Long> accountIds) {
+        logger.info("Ownership cache miss for {} accounts", accountIds.size());
+        List<Long> ids = new ArrayList<>(accountIds);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MULTI_GET_CHUNK) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + MULTI_GET_CHUNK)));
+        }
+        return Flux.fromIterable(chunks)
+                .concatMap(chunk -> accountServiceClient.get()
+                        .uri(uri -> uri.queryParam("ids", chunk.stream()
+                                .map(String::valueOf)
+                                .collect(Collectors.joining(","))).build())
+                        .retrieve()
+                        .bodyToMono(ACCOUNTS_BY_ID))
+                .flatMapIterable(Map::values)
+                .collectMap(AccountSummary::getId, AccountSummary::getUserId);
+    }
+}
@@ -1,184 +1,320 @@
 package org.example.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.example.common.TransactionEvent;
+import org.example.model.AccountHold;
+import org.example.model.OutboxEvent;
 import org.example.model.Transaction;
-import org.example.model.TransactionEvent;
+import org.example.repository.OutboxEventRepository;
 import org.example.repository.TransactionRepository;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
-    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate;
+    private final OutboxEventRepository outboxEventRepository;
     private final WebClient webClient;
+    private final AccountOwnershipCache ownershipCache;
+    private final Scheduler transactionScheduler;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private static final int STREAM_FLUSH_EVERY = 500;
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final String TRANSACTION_EVENTS_TOPIC = "transaction-events";
     private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
 
     public TransactionService(TransactionRepository transactionRepository,
-                              KafkaTemplate<String, TransactionEvent> kafkaTemplate,
-                              WebClient.Builder webClientBuilder) {
+                              OutboxEventRepository outboxEventRepository,
+                              WebClient accountServiceClient,
+                              AccountOwnershipCache ownershipCache,
+                              Scheduler transactionScheduler,
+                              PlatformTransactionManager transactionManager,
+                              EntityManager entityManager,
+                              JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper) {
         this.transactionRepository = transactionRepository;
-        this.kafkaTemplate = kafkaTemplate;
-        this.webClient = webClientBuilder
-                .baseUrl("http://account-service:8080/accounts")
-                .build();
+        this.outboxEventRepository = outboxEventRepository;
+        this.webClient = accountServiceClient;
+        this.ownershipCache = ownershipCache;
+        this.transactionScheduler = transactionScheduler;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
         logger.info("TransactionService initialized");
     }
 
-    public Transaction createTransaction(Transaction tx, Long userId) {
-        // Step 1: Validate ownership of source account
-        validateAccountOwnership(tx.getAccountId(), userId);
-
-        // Step 2: Validate based on transaction type
-        if ("TRANSFER".equals(tx.getType())) {
-            validateForTransfer(tx);
-        } else if ("WITHDRAW".equals(tx.getType())) {
-            validateForWithdraw(tx);
+    public Mono<Transaction> createTransaction(Transaction tx, Long userId) {
+        if ("TRANSFER".equals(tx.getType()) && tx.getDestinationAccountId() == null) {
+            return Mono.error(new RuntimeException("Destination account ID is required for transfers"));
         }
 
+        // Steps 1-2: A deposit only needs ownership, which the local cache answers;
+        // steps 3-4: save the row and its outbox event on the bounded scheduler
+        if ("DEPOSIT".equals(tx.getType())) {
+            return checkOwnership(tx.getAccountId(), userId)
+                    .then(Mono.fromCallable(() -> saveWithOutbox(tx, null))
+                            .subscribeOn(transactionScheduler));
+        }
 
-        // Step 3: Save transaction
-        Transaction saved = transactionRepository.save(tx);
-        logger.info("Transaction saved with ID: {}", saved.getId());
+        // Steps 1-2: Withdrawals and transfers reserve the funds in one round trip, so
+        // they can't be spent by someone else before the event is applied; the event
+        // carries the hold id and account-service captures it. With account-service's
+        // ledger engine there is no hold, only a funds check the engine repeats on apply
+        return reserveHold(tx, userId)
+                .flatMap(holdId -> Mono.fromCallable(() -> saveWithOutbox(tx, holdId.orElse(null)))
+                        .subscribeOn(transactionScheduler)
+                        .onErrorResume(e -> holdId.map(this::releaseHold).orElse(Mono.empty()).then(Mono.error(e))));
+    }
 
-        // Step 4: Prepare and send Kafka event
-        TransactionEvent event;
+    public List<Transaction> getTransactionsByAccount(Long accountId, Long userId, Long afterId, int limit) {
+        checkOwnership(accountId, userId).block();
 
-        if ("TRANSFER".equals(tx.getType()) && tx.getDestinationAccountId() != null) {
-            logger.info("@@@@@@@@@@@@@@@DestinationAccountId%%%%%%%%%%%%{} second{}", tx.getDestinationAccountId(),saved.getDestinationAccountId());
-            event = new TransactionEvent(
-                    saved.getId(),
-                    saved.getAccountId(),
-                    saved.getAmount(),
-                    saved.getType(),
-                    saved.getTimestamp().toString(),
-                    saved.getDestinationAccountId()
-            );
-        } else {
-            event = new TransactionEvent(
-                    saved.getId(),
-                    saved.getAccountId(),
-                    saved.getAmount(),
-                    saved.getType(),
-                    saved.getTimestamp().toString(),
-                    null
-            );
-        }
+        List<Transaction> transactions = transactionRepository.findByAccountIdAndIdGreaterThanOrderByIdAsc(
+                accountId, afterId == null ? 0L : afterId, Limit.of(limit));
+        logger.info("Fetched {} transactions for accountId: {} after id: {}", transactions.size(), accountId, afterId);
+        return transactions;
+    }
 
-        logger.info("Sending transaction event to Kafka: {}", event);
-        kafkaTemplate.send("transaction-events", event);
-        logger.info("Transaction event sent successfully for ID: {}", saved.getId());
+    /**
+     * Streams an account's full history as NDJSON. Ownership is checked before the
+     * response starts; rows are then read through a JDBC cursor and written (and
+     * detached) one at a time, so memory stays flat however long the history is.
+     */
+    public StreamingResponseBody streamTransactionsByAccount(Long accountId, Long userId) {
+        checkOwnership(accountId, userId).block();
 
-        return saved;
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Transaction> transactions = transactionRepository.streamByAccountId(accountId)) {
+                long count = 0;
+                for (Transaction tx : (Iterable<Transaction>) transactions::iterator) {
+                    out.write(objectMapper.writeValueAsBytes(tx));
+                    out.write('\n');
+                    entityManager.detach(tx);
+                    if (++count % STREAM_FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                }
+                out.flush();
+                logger.info("Streamed {} transactions for accountId: {}", count, accountId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
-    public List<Transaction> getTransactionsByAccount(Long accountId, Long userId) {
-        logger.info("Validating account ownership for accountId: {} and userId: {}", accountId, userId);
-        Boolean isOwner;
-        try {
-            isOwner = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/{accountId}/validate")
-                            .queryParam("userId", userId)
-                            .build(accountId)
-                    )
-                    .retrieve()
-                    .bodyToMono(Boolean.class)
-                    .block();
-        } catch (Exception e) {
-            logger.error("Error during ownership validation for accountId: {} and userId: {}", accountId, userId, e);
-            throw new RuntimeException("Validation service unavailable");
-        }
-
-        if (!Boolean.TRUE.equals(isOwner)) {
-            logger.warn("Ownership validation failed for accountId: {} and userId: {}", accountId, userId);
-            throw new RuntimeException("Unauthorized");
+    /**
+     * Bulk import of historical rows (e.g. from a migrated ledger). Balances already
+     * reflect them, so no transaction events are queued. Everything goes in one DB
+     * transaction as plain JDBC batches of {@value #IMPORT_BATCH_SIZE} rows, each of
+     * which reaches Postgres as one multi-row INSERT; ids come from the identity
+     * column, so nothing is read back. Callers are service principals (see
+     * {@code SecurityConfig}); every source and transfer destination account must exist.
+     */
+    public int importTransactions(List<Transaction> rows, String importedBy) {
+        for (Transaction row : rows) {
+            if (row.getTimestamp() == null) {
+                throw new RuntimeException("Imported transactions need their original timestamp");
+            }
+            if ("TRANSFER".equals(row.getType()) && row.getDestinationAccountId() == null) {
+                throw new RuntimeException("Destination account ID is required for transfers");
+            }
         }
+        Set<Long> sources = rows.stream().map(Transaction::getAccountId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Long> destinations = rows.stream().filter(row -> "TRANSFER".equals(row.getType()))
+                .map(Transaction::getDestinationAccountId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Long> accountIds = new LinkedHashSet<>(sources);
+        accountIds.addAll(destinations);
+        Map<Long, Long> existing = ownershipCache.getOwners(accountIds)
+                .onErrorMap(e -> {
+                    logger.error("Error while looking up {} accounts for import", accountIds.size(), e);
+                    return new RuntimeException("Validation service unavailable");
+                })
+                .block();
+        requireAll(sources, existing, "Account not found");
+        requireAll(destinations, existing, "Destination account not found");
 
-        logger.info("Ownership validated successfully for accountId: {} and userId: {}", accountId, userId);
-
-        List<Transaction> transactions = transactionRepository.findByAccountId(accountId);
-        logger.info("Fetched {} transactions for accountId: {}", transactions.size(), accountId);
-        return transactions;
+        Integer imported = writeTransaction.execute(status -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO transactions (account_id, amount, type, timestamp, destination_account_id) "
+                            + "VALUES (?, ?, ?, ?, ?)",
+                    rows, IMPORT_BATCH_SIZE, (insert, row) -> {
+                        insert.setLong(1, row.getAccountId());
+                        insert.setBigDecimal(2, row.getAmount());
+                        insert.setString(3, row.getType());
+                        insert.setTimestamp(4, Timestamp.valueOf(row.getTimestamp()));
+                        insert.setObject(5, row.getDestinationAccountId(), Types.BIGINT);
+                    });
+            return rows.size();
+        });
+        logger.info("Imported {} historical transactions for {}", imported, importedBy);
+        return imported == null ? 0 : imported;
     }
 
     // ──────────────────────────── PRIVATE HELPERS ─────────────────────────── //
 
-    private void validateAccountOwnership(Long accountId, Long userId) {
+    private Mono<Void> checkOwnership(Long accountId, Long userId) {
         logger.info("Validating ownership for accountId: {} and userId: {}", accountId, userId);
-        try {
-            Boolean isOwner = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/{id}/validate")
-                            .queryParam("userId", userId)
-                            .build(accountId)
-                    )
-                    .retrieve()
-                    .bodyToMono(Boolean.class)
-                    .block();
-
-            if (!Boolean.TRUE.equals(isOwner)) {
-                logger.warn("Ownership validation failed for accountId: {} and userId: {}", accountId, userId);
-                throw new RuntimeException("Unauthorized");
+        return ownershipCache.isOwner(accountId, userId)
+                .onErrorMap(e -> {
+                    logger.error("Error during ownership validation for accountId: {} and userId: {}", accountId, userId, e);
+                    return new RuntimeException("Validation service unavailable");
+                })
+                .flatMap(isOwner -> {
+                    if (!isOwner) {
+                        logger.warn("Ownership validation failed for accountId: {} and userId: {}", accountId, userId);
+                        return Mono.error(new RuntimeException("Unauthorized"));
+                    }
+                    logger.info("Ownership validated successfully for accountId: {} and userId: {}", accountId, userId);
+                    return Mono.empty();
+                });
+    }
+
+    private static void requireAll(Set<Long> accountIds, Map<Long, Long> existing, String notFoundMessage) {
+        for (Long accountId : accountIds) {
+            if (!existing.containsKey(accountId)) {
+                logger.warn("{}: {}", notFoundMessage, accountId);
+                throw new RuntimeException(notFoundMessage);
             }
-            logger.info("Ownership validated successfully for accountId: {} and userId: {}", accountId, userId);
-        } catch (Exception e) {
-            logger.error("Error during ownership validation", e);
-            throw new RuntimeException("Validation service unavailable");
         }
     }
 
-    private void validateForWithdraw(Transaction tx) {
-        logger.info("Validating sufficient funds for WITHDRAW of {} from account {}", tx.getAmount(), tx.getAccountId());
-        try {
-            Boolean hasSufficientFunds = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/{id}/checksum")
-                            .queryParam("sum", tx.getAmount())
-                            .build(tx.getAccountId())
-                    )
-                    .retrieve()
-                    .bodyToMono(Boolean.class)
-                    .block();
-
-            if (!Boolean.TRUE.equals(hasSufficientFunds)) {
+    private Optional<Long> checkHold(Transaction tx, Long userId, AccountHold hold) {
+        switch (String.valueOf(hold.getStatus())) {
+            case AccountHold.HELD -> {
+                ownershipCache.put(tx.getAccountId(), userId);
+                return Optional.of(hold.getHoldId());
+            }
+            case AccountHold.FUNDS_AVAILABLE -> {
+                ownershipCache.put(tx.getAccountId(), userId);
+                return Optional.empty();
+            }
+            case AccountHold.INSUFFICIENT_FUNDS -> {
+                ownershipCache.put(tx.getAccountId(), userId);
                 logger.warn("Insufficient funds for account: {}", tx.getAccountId());
                 throw new RuntimeException("NOT ENOUGH FUND");
             }
-            logger.info("Sufficient funds validated for account: {}", tx.getAccountId());
-        } catch (Exception e) {
-            logger.error("Error during fund validation for account: {}", tx.getAccountId(), e);
-            throw new RuntimeException("Validation service unavailable");
+            case AccountHold.DESTINATION_NOT_FOUND -> {
+                logger.warn("Destination account not found: {}", tx.getDestinationAccountId());
+                throw new RuntimeException("Destination account not found");
+            }
+            case AccountHold.CURRENCY_MISMATCH -> {
+                logger.warn("Currency of account {} differs from account {}", tx.getDestinationAccountId(), tx.getAccountId());
+                throw new RuntimeException("Destination account has a different currency");
+            }
+            default -> {
+                logger.warn("Ownership validation failed for accountId: {} and userId: {}", tx.getAccountId(), userId);
+                throw new RuntimeException("Unauthorized");
+            }
         }
     }
 
-    private void validateForTransfer(Transaction tx) {
-        if (tx.getDestinationAccountId() == null) {
-            throw new RuntimeException("Destination account ID is required for transfers");
+    /**
+     * Saves the transaction and its outbox event in one DB transaction. Kafka is
+     * left to {@link org.example.kafka.OutboxRelay}, so the request never waits on
+     * the broker and a broker outage can't lose an event for a committed row.
+     */
+    private Transaction saveWithOutbox(Transaction tx, Long holdId) {
+        if (tx.getTimestamp() == null) {
+            tx.setTimestamp(LocalDateTime.now());
         }
+        Transaction saved = writeTransaction.execute(status -> {
+            Transaction row = transactionRepository.save(tx);
+            TransactionEvent event = new TransactionEvent(
+                    row.getId(),
+                    row.getAccountId(),
+                    row.getAmount(),
+                    row.getType(),
+                    row.getTimestamp().toString(),
+                    "TRANSFER".equals(row.getType()) ? row.getDestinationAccountId() : null
+            );
+            event.setHoldId(holdId);
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .topic(TRANSACTION_EVENTS_TOPIC)
+                    // Keyed by source account so all of an account's events share a partition, in order
+                    .messageKey(String.valueOf(row.getAccountId()))
+                    .payload(toJson(event))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            return row;
+        });
+        logger.info("Transaction saved with ID: {}, event queued in outbox", saved.getId());
+        return saved;
+    }
 
-        // Reuse withdraw validation for source account
-        validateForWithdraw(tx);
-
-        // Validate destination account EXISTS by calling GET /{id} — expect 200 OK
-        logger.info("Validating existence of destination account: {}", tx.getDestinationAccountId());
+    private String toJson(TransactionEvent event) {
         try {
-            // We don't need the body — just check if 200 is returned
-            webClient.get()
-                    .uri("/{id}", tx.getDestinationAccountId())
-                    .retrieve()
-                    .toBodilessEntity() // ← No need to deserialize to Account!
-                    .block();
-
-            logger.info("Destination account exists: {}", tx.getDestinationAccountId());
-        } catch (Exception e) {
-            logger.warn("Destination account not found: {}", tx.getDestinationAccountId(), e);
-            throw new RuntimeException("Destination account not found");
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize transaction event", e);
         }
     }
-}
\ No newline at end of file
+
+    private Mono<Optional<Long>> reserveHold(Transaction tx, Long userId) {
+        logger.info("Reserving {} on accountId: {} for userId: {}, type: {}", tx.getAmount(), tx.getAccountId(), userId, tx.getType());
+        Optional<Long> destinationAccountId = "TRANSFER".equals(tx.getType())
+                ? Optional.of(tx.getDestinationAccountId())
+                : Optional.empty();
+
+        return webClient.post()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/{id}/holds")
+                        .queryParam("userId", userId)
+                        .queryParam("amount", tx.getAmount())
+                        .queryParamIfPresent("destinationAccountId", destinationAccountId)
+                        .build(tx.getAccountId())
+                )
+                .retrieve()
+                .bodyToMono(AccountHold.class)
+                .onErrorMap(e -> {
+                    logger.error("Error reserving funds for accountId: {} and userId: {}", tx.getAccountId(), userId, e);
+                    return new RuntimeException("Validation service unavailable");
+                })
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Validation service unavailable")))
+                .map(hold -> checkHold(tx, userId, hold));
+    }
+
+    // Best effort: a hold that isn't released here still expires on account-service
+    private Mono<Void> releaseHold(Long holdId) {
+        return webClient.post()
+                .uri("/holds/{holdId}/release", holdId)
+                .retrieve()
+                .toBodilessEntity()
+                .doOnError(e -> logger.warn("Could not release hold {}, leaving it to expire", holdId, e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+}
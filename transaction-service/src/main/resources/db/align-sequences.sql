@@ -0,0 +1,40 @@
+-- transactions and outbox_events ids come from IDENTITY columns again: pooled-lo
+-- blocks handed out ids out of insert order, which broke the history keyset cursor
+-- and the outbox relay's publish order. Tables created while the entities used
+-- sequences get their identity back, and each identity sequence is moved past the
+-- ids already in its table; once aligned this changes nothing. The bodies are
+-- quoted strings rather than $$ blocks so the script runner splits on ; correctly.
+DO 'DECLARE
+    seq text;
+    max_id bigint;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = ''transactions''
+                     AND column_name = ''id'' AND is_identity = ''YES'') THEN
+        ALTER TABLE transactions ALTER COLUMN id DROP DEFAULT;
+        ALTER TABLE transactions ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY;
+    END IF;
+    seq := pg_get_serial_sequence(''transactions'', ''id'');
+    SELECT max(id) INTO max_id FROM transactions;
+    IF max_id >= (SELECT coalesce(last_value, 0) FROM pg_sequences
+                  WHERE format(''%I.%I'', schemaname, sequencename) = seq) THEN
+        PERFORM setval(seq, max_id);
+    END IF;
+END';
+DO 'DECLARE
+    seq text;
+    max_id bigint;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = ''outbox_events''
+                     AND column_name = ''id'' AND is_identity = ''YES'') THEN
+        ALTER TABLE outbox_events ALTER COLUMN id DROP DEFAULT;
+        ALTER TABLE outbox_events ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY;
+    END IF;
+    seq := pg_get_serial_sequence(''outbox_events'', ''id'');
+    SELECT max(id) INTO max_id FROM outbox_events;
+    IF max_id >= (SELECT coalesce(last_value, 0) FROM pg_sequences
+                  WHERE format(''%I.%I'', schemaname, sequencename) = seq) THEN
+        PERFORM setval(seq, max_id);
+    END IF;
+END';
@@ -0,0 +1,90 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.common.TransactionEvent;
+import org.example.model.Transaction;
+import org.example.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Withdrawals against an account-service running the ledger engine, which
+ * answers a reserve with a funds check instead of a hold.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LedgerEngineWithdrawalTest {
+
+    private static final List<String> accountServiceCalls = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class EngineModeAccountService {
+
+        @Bean
+        @Primary
+        WebClient engineModeAccountServiceClient() {
+            return WebClient.builder()
+                    .baseUrl("http://account-service/accounts")
+                    .exchangeFunction(request -> {
+                        accountServiceCalls.add(request.method() + " " + request.url().getPath());
+                        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body("{\"status\":\"FUNDS_AVAILABLE\"}")
+                                .build());
+                    })
+                    .build();
+        }
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void createsWithdrawalWithoutHold() throws Exception {
+        accountServiceCalls.clear();
+        Transaction withdrawal = new Transaction();
+        withdrawal.setAccountId(900_000_101L);
+        withdrawal.setAmount(new BigDecimal("25.00"));
+        withdrawal.setType("WITHDRAW");
+
+        Transaction saved = transactionService.createTransaction(withdrawal, 7L).block();
+
+        assertNotNull(saved);
+        assertNotNull(saved.getId());
+        String payload = jdbcTemplate.queryForObject(
+                "SELECT payload FROM outbox_events WHERE (payload::jsonb ->> 'transactionId')::bigint = ?",
+                String.class, saved.getId());
+        TransactionEvent event = objectMapper.readValue(payload, TransactionEvent.class);
+        assertEquals("WITHDRAW", event.getType());
+        assertEquals(0, new BigDecimal("25.00").compareTo(event.getAmount()));
+        assertNull(event.getHoldId());
+        // Only the reserve call: there is no hold to release or capture
+        assertEquals(List.of("POST /accounts/900000101/holds"), accountServiceCalls);
+    }
+}
@@ -1,6 +1,7 @@
 package org.example;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.JwtPrincipal;
 import org.example.config.JwtUtil;
 import org.example.model.Transaction;
 import org.example.service.TransactionService;
@@ -13,13 +14,20 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -49,14 +57,19 @@ class TransactionControllerTest {
         inputTx.setAmount(BigDecimal.valueOf(50));
         inputTx.setType("DEPOSIT");
 
-        Mockito.when(jwtUtil.extractUserId(any(String.class))).thenReturn(2L);
+        Mockito.when(jwtUtil.verify(any(String.class)))
+                .thenReturn(new JwtPrincipal("user", 2L, Instant.now().plusSeconds(3600)));
         Mockito.when(transactionService.createTransaction(any(Transaction.class), eq(2L)))
-                .thenReturn(inputTx);
+                .thenReturn(Mono.just(inputTx));
 
-        mockMvc.perform(post("/transactions")
+        MvcResult result = mockMvc.perform(post("/transactions")
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("Authorization", "Bearer dummy-token")
                         .content(objectMapper.writeValueAsString(inputTx)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.accountId").value(3))
@@ -70,8 +83,9 @@ class TransactionControllerTest {
         Transaction tx2 = new Transaction(2L, 3L, BigDecimal.valueOf(50), "WITHDRAW", null);
         List<Transaction> transactions = Arrays.asList(tx1, tx2);
 
-        Mockito.when(jwtUtil.extractUserId(any(String.class))).thenReturn(2L);
-        Mockito.when(transactionService.getTransactionsByAccount(3L, 2L))
+        Mockito.when(jwtUtil.verify(any(String.class)))
+                .thenReturn(new JwtPrincipal("user", 2L, Instant.now().plusSeconds(3600)));
+        Mockito.when(transactionService.getTransactionsByAccount(3L, 2L, null, 100))
                 .thenReturn(transactions);
 
         mockMvc.perform(get("/transactions/account/3")
@@ -80,7 +94,37 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[0].type").value("DEPOSIT"))
-                .andExpect(jsonPath("$[1].type").value("WITHDRAW"));
+                .andExpect(jsonPath("$[1].type").value("WITHDRAW"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void testImportRequiresServiceRole() throws Exception {
+        Mockito.when(jwtUtil.verify(any(String.class)))
+                .thenReturn(new JwtPrincipal("user", 2L, Instant.now().plusSeconds(3600)));
+
+        mockMvc.perform(post("/transactions/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer dummy-token")
+                        .content(objectMapper.writeValueAsString(List.of(historicalDeposit()))))
+                .andExpect(status().isForbidden());
+
+        Mockito.verify(transactionService, Mockito.never()).importTransactions(anyList(), any());
+    }
+
+    @Test
+    void testImportAsService() throws Exception {
+        Mockito.when(jwtUtil.verify(any(String.class)))
+                .thenReturn(new JwtPrincipal("ledger-migration", null, Instant.now().plusSeconds(3600), Set.of("SERVICE")));
+        Mockito.when(transactionService.importTransactions(anyList(), eq("ledger-migration")))
+                .thenReturn(1);
+
+        mockMvc.perform(post("/transactions/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer dummy-token")
+                        .content(objectMapper.writeValueAsString(List.of(historicalDeposit()))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
     }
 
     @Test
@@ -94,4 +138,10 @@ class TransactionControllerTest {
                         .content(objectMapper.writeValueAsString(inputTx)))
                 .andExpect(status().isBadRequest());
     }
+
+    private static Transaction historicalDeposit() {
+        Transaction tx = new Transaction(null, 3L, BigDecimal.valueOf(50), "DEPOSIT", null);
+        tx.setTimestamp(LocalDateTime.of(2020, 1, 1, 0, 0));
+        return tx;
+    }
 }
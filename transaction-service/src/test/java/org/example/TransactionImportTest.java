@@ -0,0 +1,125 @@
+package org.example;
+
+import org.example.model.Transaction;
+import org.example.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Bulk import against an account-service stub that knows every account id
+ * below {@link #MISSING_FROM}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionImportTest {
+
+    private static final long MISSING_FROM = 900_000_300L;
+    private static final List<String> accountServiceCalls = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class MultiGetAccountService {
+
+        @Bean
+        @Primary
+        WebClient multiGetAccountServiceClient() {
+            return WebClient.builder()
+                    .baseUrl("http://account-service/accounts")
+                    .exchangeFunction(request -> {
+                        accountServiceCalls.add(request.method() + " " + request.url().getPath()
+                                + "?" + request.url().getQuery());
+                        String ids = request.url().getQuery().substring("ids=".length());
+                        String body = Arrays.stream(ids.split(","))
+                                .map(Long::valueOf)
+                                .filter(id -> id < MISSING_FROM)
+                                .map(id -> "\"" + id + "\":{\"id\":" + id + ",\"userId\":7,\"currency\":\"USD\"}")
+                                .collect(Collectors.joining(",", "{", "}"));
+                        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body(body)
+                                .build());
+                    })
+                    .build();
+        }
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearCalls() {
+        accountServiceCalls.clear();
+    }
+
+    @Test
+    void checksEveryAccountWithOneMultiGetAndKeepsRowOrder() {
+        long first = 900_000_201L;
+        long second = 900_000_202L;
+        long destination = 900_000_203L;
+        jdbcTemplate.update("DELETE FROM transactions WHERE account_id IN (?, ?)", first, second);
+
+        int imported = transactionService.importTransactions(List.of(
+                row(first, "1.00", "DEPOSIT", null),
+                row(second, "2.00", "DEPOSIT", null),
+                row(first, "3.00", "TRANSFER", destination),
+                row(second, "4.00", "WITHDRAW", null)), "test");
+
+        assertEquals(4, imported);
+        assertEquals(List.of("GET /accounts?ids=900000201,900000202,900000203"), accountServiceCalls);
+        // Identity ids follow the import order
+        List<BigDecimal> amounts = jdbcTemplate.queryForList(
+                "SELECT amount FROM transactions WHERE account_id IN (?, ?) ORDER BY id", BigDecimal.class, first, second);
+        assertEquals(List.of(new BigDecimal("1.00"), new BigDecimal("2.00"), new BigDecimal("3.00"), new BigDecimal("4.00")),
+                amounts);
+    }
+
+    @Test
+    void rejectsTheWholeImportWhenADestinationIsMissing() {
+        long source = 900_000_211L;
+        jdbcTemplate.update("DELETE FROM transactions WHERE account_id = ?", source);
+
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> transactionService.importTransactions(List.of(
+                row(source, "1.00", "DEPOSIT", null),
+                row(source, "1.00", "TRANSFER", MISSING_FROM + 1)), "test"));
+
+        assertEquals("Destination account not found", missing.getMessage());
+        assertEquals(1, accountServiceCalls.size());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transactions WHERE account_id = ?", Integer.class, source));
+    }
+
+    private static Transaction row(long accountId, String amount, String type, Long destinationAccountId) {
+        return Transaction.builder()
+                .accountId(accountId)
+                .amount(new BigDecimal(amount))
+                .type(type)
+                .timestamp(LocalDateTime.of(2020, 1, 1, 0, 0))
+                .destinationAccountId(destinationAccountId)
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.example.TransactionServiceApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saturation benchmark for GET /transactions/account/{id}: the request blocks on the
+ * account-service ownership lookup (stubbed here with a fixed latency, ownership cache
+ * disabled) and then reads from the database. Boots the service once on platform threads and once with
+ * {@code spring.threads.virtual.enabled=true}, then reports throughput and latency
+ * percentiles for each.
+ *
+ * <p>Needs the {@code test} profile database and a Java 21 runtime for the virtual mode:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.example.benchmark.ThreadModeLoadHarness \
+ *     -Dharness.concurrency=1000 -Dharness.requests=20000 -Dharness.latencyMs=50
+ * </pre>
+ */
+public class ThreadModeLoadHarness {
+
+    private static final String SECRET = "secretkey1234567890secretkey1234567890";
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("harness.concurrency", 1000);
+        int requests = Integer.getInteger("harness.requests", 20000);
+        int warmup = Integer.getInteger("harness.warmup", 2000);
+        int latencyMs = Integer.getInteger("harness.latencyMs", 50);
+
+        HttpServer accountStub = startAccountStub(latencyMs);
+        try {
+            String token = Jwts.builder()
+                    .setSubject("harness")
+                    .claim("userId", 1L)
+                    .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                    .compact();
+            String stubUrl = "http://localhost:" + accountStub.getAddress().getPort() + "/accounts";
+
+            for (boolean virtual : new boolean[]{false, true}) {
+                try (ConfigurableApplicationContext context = SpringApplication.run(TransactionServiceApplication.class,
+                        "--server.port=0",
+                        "--spring.profiles.active=test",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--account-service.url=" + stubUrl,
+                        "--account-service.ownership-cache.maximum-size=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN")) {
+                    URI target = URI.create("http://localhost:"
+                            + context.getEnvironment().getProperty("local.server.port") + "/transactions/account/1");
+
+                    run(target, token, concurrency, warmup);
+                    Result result = run(target, token, concurrency, requests);
+                    System.out.printf("%-8s concurrency=%d requests=%d errors=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                            virtual ? "virtual" : "platform", concurrency, requests, result.errors,
+                            result.throughput(), result.percentile(0.50), result.percentile(0.99), result.percentile(1.0));
+                }
+            }
+        } finally {
+            accountStub.stop(0);
+        }
+    }
+
+    private static Result run(URI target, String token, int concurrency, int requests) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            clients.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - sent;
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(latencies, elapsed, errors.get());
+    }
+
+    private static HttpServer startAccountStub(int latencyMs) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/accounts", exchange -> {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\":1,\"userId\":1,\"currency\":\"USD\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private record Result(long[] sortedLatencies, long elapsedNanos, long errors) {
+
+        double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1e9);
+        }
+
+        double percentile(double p) {
+            int index = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
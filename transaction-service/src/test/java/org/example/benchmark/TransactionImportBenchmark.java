@@ -0,0 +1,115 @@
+package org.example.benchmark;
+
+import org.example.TransactionServiceApplication;
+import org.example.model.Transaction;
+import org.example.service.AccountOwnershipCache;
+import org.example.service.TransactionService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insert throughput for historical transactions. "identity" is what saving them one
+ * by one through JPA costs with IDENTITY ids: one {@code INSERT ... RETURNING id} round trip per
+ * row, since Hibernate can't batch inserts whose id it has to read back. It runs
+ * against a scratch copy of the table. "import" is
+ * {@link TransactionService#importTransactions}: JDBC batches of 500 rows that the
+ * driver rewrites into multi-row INSERTs, with the identity column filling in ids.
+ *
+ * <p>Needs the {@code test} profile database:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.example.benchmark.TransactionImportBenchmark \
+ *     -Dbench.rows=1000000
+ * </pre>
+ */
+public class TransactionImportBenchmark {
+
+    private static final long ACCOUNT_ID = 900_000_001L;
+    private static final long USER_ID = 1L;
+    private static final int CHUNK = 50_000;
+
+    public static void main(String[] args) {
+        int rows = Integer.getInteger("bench.rows", 1_000_000);
+
+        List<String> springArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.profiles.active=test",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        springArgs.addAll(List.of(args));
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(TransactionServiceApplication.class,
+                springArgs.toArray(String[]::new))) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            TransactionService transactionService = context.getBean(TransactionService.class);
+            context.getBean(AccountOwnershipCache.class).put(ACCOUNT_ID, USER_ID);
+
+            jdbc.execute("DROP TABLE IF EXISTS transactions_identity_bench");
+            // Same columns, indexes and identity id as transactions
+            jdbc.execute("CREATE TABLE transactions_identity_bench (LIKE transactions INCLUDING INDEXES INCLUDING IDENTITY)");
+            try {
+                long start = System.nanoTime();
+                tx.executeWithoutResult(status -> jdbc.execute((ConnectionCallback<Void>) connection -> {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO transactions_identity_bench (account_id, amount, type, timestamp, destination_account_id) "
+                                    + "VALUES (?, ?, ?, ?, ?) RETURNING id")) {
+                        for (int i = 0; i < rows; i++) {
+                            Transaction row = row(i);
+                            insert.setLong(1, row.getAccountId());
+                            insert.setBigDecimal(2, row.getAmount());
+                            insert.setString(3, row.getType());
+                            insert.setTimestamp(4, Timestamp.valueOf(row.getTimestamp()));
+                            insert.setObject(5, null, Types.BIGINT);
+                            try (ResultSet id = insert.executeQuery()) {
+                                id.next();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+                report("identity", rows, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int from = 0; from < rows; from += CHUNK) {
+                    List<Transaction> chunk = new ArrayList<>(CHUNK);
+                    for (int i = from; i < Math.min(rows, from + CHUNK); i++) {
+                        chunk.add(row(i));
+                    }
+                    transactionService.importTransactions(chunk, "benchmark");
+                }
+                report("import", rows, System.nanoTime() - start);
+            } finally {
+                jdbc.execute("DROP TABLE IF EXISTS transactions_identity_bench");
+                jdbc.update("DELETE FROM transactions WHERE account_id = ?", ACCOUNT_ID);
+            }
+        }
+    }
+
+    private static Transaction row(int i) {
+        return Transaction.builder()
+                .accountId(ACCOUNT_ID)
+                .amount(BigDecimal.valueOf(1 + i % 1000, 2))
+                .type("DEPOSIT")
+                .timestamp(LocalDateTime.of(2020, 1, 1, 0, 0).plusSeconds(i))
+                .build();
+    }
+
+    private static void report(String mode, int rows, long elapsedNanos) {
+        System.out.printf("%-8s rows=%d elapsed=%.1f s throughput=%.0f rows/s%n",
+                mode, rows, elapsedNanos / 1e9, rows / (elapsedNanos / 1e9));
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.config;
+
+import org.example.model.CredentialCacheInvalidation;
+import org.example.service.CredentialCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "login.credentials-cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CredentialCacheInvalidationListener {
+
+    private final CredentialCache credentialCache;
+
+    public CredentialCacheInvalidationListener(CredentialCache credentialCache) {
+        this.credentialCache = credentialCache;
+    }
+
+    @KafkaListener(topics = "${login.credentials-cache.invalidation.topic:credential-cache-invalidations}",
+            containerFactory = "credentialCacheInvalidationContainerFactory")
+    public void onInvalidation(CredentialCacheInvalidation invalidation) {
+        if (invalidation != null) {
+            credentialCache.onInvalidation(invalidation);
+        }
+    }
+}
@@ -1,63 +1,168 @@
 package org.example.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.example.model.PasswordChangeRequest;
+import org.example.model.RefreshRequest;
 import org.example.model.User;
-import org.example.security.JwtUtil;
+import org.example.security.JwtPrincipal;
+import org.example.service.LoginRateLimiter;
+import org.example.service.TokenService;
+import org.example.service.TooManyRequestsException;
 import org.example.service.UserService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
+    private static final int MAX_IDS = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final UserService userService;
-    private final JwtUtil jwtUtil;
+    private final LoginRateLimiter loginRateLimiter;
+    private final TokenService tokenService;
 
-    public UserController(UserService userService, JwtUtil jwtUtil) {
+    public UserController(UserService userService, LoginRateLimiter loginRateLimiter, TokenService tokenService) {
         this.userService = userService;
-        this.jwtUtil = jwtUtil;
+        this.loginRateLimiter = loginRateLimiter;
+        this.tokenService = tokenService;
+    }
+
+    /**
+     * Bulk signup for partner migrations, all or nothing; answers the new ids in
+     * request order. Charged to the caller's registration budget once per batch.
+     */
+    @PostMapping("/register/batch")
+    public CompletableFuture<ResponseEntity<?>> registerAll(
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " users per batch")
+            List<@Valid User> users,
+            HttpServletRequest request) {
+        loginRateLimiter.acquireRegistration(request.getRemoteAddr());
+        CompletableFuture<List<Long>> saved;
+        try {
+            saved = userService.registerAll(users);
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+        // Later slices are queued as earlier ones finish, so the pool can still turn one away
+        return saved.<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> unwrap(e) instanceof TooManyRequestsException busy
+                        ? tooManyRequests(busy)
+                        : ResponseEntity.badRequest().body(unwrap(e).getMessage()));
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody User user) {  // ← Add @Valid
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody User user, HttpServletRequest request) {  // ← Add @Valid
+        loginRateLimiter.acquireRegistration(request.getRemoteAddr());
+        CompletableFuture<User> saved;
         try {
-            User savedUser = userService.register(user);
-            return ResponseEntity.ok(savedUser);
+            saved = userService.register(user);
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             // Let validation errors be handled globally; this catch is for business logic exceptions
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
         }
+        return saved.<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> ResponseEntity.badRequest().body(unwrap(e).getMessage()));
     }
 
+    /**
+     * The attempt is charged to the username and the caller's address before
+     * anything is hashed; the password check then runs on the hash pool, and the
+     * request thread is released while it waits. Answers with a short-lived
+     * access token and a refresh token for {@code /users/token/refresh}.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody User user, HttpServletRequest request) {
         // Login doesn't need @Valid since only username/password are used, but we validate manually
         if (user.getUsername() == null || user.getUsername().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body("Username is required");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username is required"));
         }
         if (user.getPassword() == null || user.getPassword().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body("Password is required");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Password is required"));
         }
 
-        boolean authenticated = userService.authenticate(user.getUsername(), user.getPassword());
-        if (authenticated) {
-            Long userId = userService.getId(user.getUsername());
-            if (userId == null) {
-                return ResponseEntity.status(500).body("User ID not found");
-            }
-            String token = jwtUtil.generateToken(user.getUsername(), userId);
-            return ResponseEntity.ok(token);
-        } else {
-            return ResponseEntity.status(401).body("Invalid credentials");
-        }
+        loginRateLimiter.acquireLogin(user.getUsername(), request.getRemoteAddr());
+        return userService.authenticate(user.getUsername(), user.getPassword())
+                .thenApply(authenticated -> authenticated
+                        .<ResponseEntity<?>>map(c -> ResponseEntity.ok(tokenService.issue(c.getId(), c.getUsername())))
+                        .orElseGet(() -> ResponseEntity.status(401).body("Invalid credentials")));
+    }
+
+    /** New access token for a refresh token, without a password check; the refresh token is rotated. */
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest refresh) {
+        return tokenService.refresh(refresh.getRefreshToken())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(401).body("Invalid refresh token"));
+    }
+
+    /** Signs out every session of the caller: all refresh tokens are revoked. */
+    @DeleteMapping("/me/refresh-tokens")
+    public ResponseEntity<Void> revokeRefreshTokens(@AuthenticationPrincipal JwtPrincipal principal) {
+        tokenService.revokeAll(principal.getUserId());
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Checks the current password like a login does, so it is charged to the same budgets. */
+    @PutMapping("/me/password")
+    public CompletableFuture<ResponseEntity<?>> changePassword(@Valid @RequestBody PasswordChangeRequest change,
+                                                               @AuthenticationPrincipal JwtPrincipal principal,
+                                                               HttpServletRequest request) {
+        loginRateLimiter.acquireLogin(principal.getUsername(), request.getRemoteAddr());
+        return userService.changePassword(principal.getUserId(), change.getCurrentPassword(), change.getNewPassword())
+                .thenApply(changed -> changed
+                        ? ResponseEntity.noContent().build()
+                        : ResponseEntity.status(401).body("Invalid credentials"));
+    }
+
+    /**
+     * Summaries (id, username, email) of the users among the ids, for callers
+     * enriching a list view in one call. Unknown ids are left out, repeated ones
+     * appear once; the array is written to the response as it is serialized.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<StreamingResponseBody> getUsers(
+            @RequestParam @NotEmpty @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " ids per request")
+            List<@Min(1) Long> ids) {
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userService.streamSummaries(ids));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getUser(@PathVariable @Min(1) Long id) {  // ← Validate path variable
-        return userService.findById(id)
+        return userService.getSummary(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<String> tooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.model;
+
+import lombok.*;
+
+/**
+ * Payload of the credential cache invalidation topic: the username whose
+ * cached credentials every other instance must drop. Carries no hash, so a
+ * late or reordered message can't install a stale one.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialCacheInvalidation {
+
+    // Instance that changed the password; it skips its own messages
+    private String origin;
+    private String username;
+}
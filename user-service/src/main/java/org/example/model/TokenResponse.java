@@ -0,0 +1,19 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Body of a successful login or refresh. */
+@Getter
+@AllArgsConstructor
+public class TokenResponse {
+
+    private final String accessToken;
+
+    private final String refreshToken;
+
+    private final String tokenType;
+
+    /** Access token lifetime in seconds. */
+    private final long expiresIn;
+}
@@ -0,0 +1,20 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What a login needs from a user row: the id for the token, the username and
+ * the stored password hash. Loaded as a projection, so logins never hydrate
+ * the full {@link User}.
+ */
+@Getter
+@AllArgsConstructor
+public class UserCredentials {
+
+    private final Long id;
+
+    private final String username;
+
+    private final String passwordHash;
+}
@@ -0,0 +1,19 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The public view of a user, for other services to show next to their own
+ * rows. Loaded as a projection, so the password hash is never read.
+ */
+@Getter
+@AllArgsConstructor
+public class UserSummary {
+
+    private final Long id;
+
+    private final String username;
+
+    private final String email;
+}
@@ -1,12 +1,55 @@
 package org.example.repository;
 
 import org.example.model.User;
+import org.example.model.UserCredentials;
+import org.example.model.UserSummary;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("select new org.example.model.UserSummary(u.id, u.username, u.email) from User u where u.id in :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /** Every username and email, read through a server-side cursor; call inside a transaction. */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("select u.username, u.email from User u")
+    Stream<Object[]> streamUsernamesAndEmails();
+
+    @Query("select new org.example.model.UserCredentials(u.id, u.username, u.password) from User u where u.username = :username")
+    Optional<UserCredentials> findCredentialsByUsername(@Param("username") String username);
+
+    @Query("select new org.example.model.UserCredentials(u.id, u.username, u.password) from User u where u.id = :id")
+    Optional<UserCredentials> findCredentialsById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :passwordHash where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("passwordHash") String passwordHash);
+
+    /** Swaps in a rehash of the same password; 0 when the hash changed since it was read. */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :upgraded where u.id = :id and u.password = :current")
+    int replacePasswordHash(@Param("id") Long id, @Param("current") String current, @Param("upgraded") String upgraded);
 }
@@ -0,0 +1,81 @@
+package org.example.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Picks the BCrypt cost for this machine: the highest cost whose hash time
+ * stays within the latency budget, never below {@code minCost}. Each cost is
+ * timed by its fastest of a few runs, since startup noise (JIT, other beans
+ * initialising) only ever adds time; each cost doubles the work, so the search
+ * stops at the first cost over budget.
+ */
+public final class BCryptCalibration {
+
+    private static final Logger logger = LoggerFactory.getLogger(BCryptCalibration.class);
+    private static final int SAMPLES = 3;
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final String PROBE = "calibration-probe-password";
+
+    private final int cost;
+    private final Map<Integer, Duration> timeByCost;
+
+    private BCryptCalibration(int cost, Map<Integer, Duration> timeByCost) {
+        this.cost = cost;
+        this.timeByCost = Collections.unmodifiableMap(timeByCost);
+    }
+
+    public static BCryptCalibration run(int minCost, int maxCost, Duration budget) {
+        // JIT warm-up (about 2% of a cost-10 run each), so the first measured
+        // cost isn't charged for interpreting and compiling the key schedule
+        BCryptPasswordEncoder warmUp = new BCryptPasswordEncoder(4);
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            warmUp.encode(PROBE);
+        }
+
+        Map<Integer, Duration> timeByCost = new LinkedHashMap<>();
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            Duration time = fastestHashTime(cost);
+            timeByCost.put(cost, time);
+            if (time.compareTo(budget) > 0) {
+                break;
+            }
+            chosen = cost;
+        }
+        logger.info("BCrypt calibrated to cost {} for a {} ms budget, hash time by cost: {}",
+                chosen, budget.toMillis(), timeByCost);
+        return new BCryptCalibration(chosen, timeByCost);
+    }
+
+    /** A fixed cost, for deployments that pin it instead of measuring. */
+    public static BCryptCalibration pinned(int cost) {
+        return new BCryptCalibration(cost, Map.of());
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /** Hash time of each cost measured, in increasing cost order; empty when pinned. */
+    public Map<Integer, Duration> getTimeByCost() {
+        return timeByCost;
+    }
+
+    private static Duration fastestHashTime(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long started = System.nanoTime();
+            encoder.encode(PROBE);
+            fastest = Math.min(fastest, System.nanoTime() - started);
+        }
+        return Duration.ofNanos(fastest);
+    }
+}
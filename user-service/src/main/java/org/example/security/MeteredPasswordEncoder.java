@@ -0,0 +1,84 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every encode and match as {@code password.encoder.duration}, tagged
+ * with the operation and the algorithm and cost of the hash involved, so the
+ * histograms show what each stored cost actually costs on this hardware.
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MeteredPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long started = System.nanoTime();
+        String encoded = delegate.encode(rawPassword);
+        timer("encode", encoded).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long started = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            timer("matches", encodedPassword).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private Timer timer(String operation, String encoded) {
+        String algorithm = algorithm(encoded);
+        String cost = cost(encoded);
+        return timers.computeIfAbsent(operation + '/' + algorithm + '/' + cost, key -> Timer.builder("password.encoder.duration")
+                .tag("operation", operation)
+                .tag("algorithm", algorithm)
+                .tag("cost", cost)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    // "{bcrypt}$2a$12$..." or a legacy unprefixed "$2a$10$..."
+    private static String algorithm(String encoded) {
+        if (encoded == null) {
+            return "none";
+        }
+        if (encoded.startsWith("{")) {
+            int end = encoded.indexOf('}');
+            return end > 0 ? encoded.substring(1, end) : "unknown";
+        }
+        return encoded.startsWith("$2") ? "bcrypt-legacy" : "unknown";
+    }
+
+    private static String cost(String encoded) {
+        if (encoded == null) {
+            return "none";
+        }
+        int start = encoded.indexOf("$2");
+        // $2a$NN$: the two digits after the second '$'
+        if (start >= 0 && encoded.length() >= start + 7 && encoded.charAt(start + 3) == '$') {
+            return encoded.substring(start + 4, start + 6);
+        }
+        return "none";
+    }
+}
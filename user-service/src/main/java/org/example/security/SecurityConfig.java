@@ -1,5 +1,10 @@
 package org.example.security;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -7,10 +12,17 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class SecurityConfig {
 
@@ -20,9 +32,39 @@ public class SecurityConfig {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
     }
 
+    /**
+     * Encodes with BCrypt at the calibrated cost under the {@code {bcrypt}} id.
+     * Matching also accepts other ids and the legacy unprefixed hashes, and
+     * {@code upgradeEncoding} flags every hash that isn't {@code {bcrypt}} at
+     * the current cost, so logins can rehash it.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${password-hashing.bcrypt.cost:0}") int pinnedCost,
+                                           @Value("${password-hashing.bcrypt.min-cost:10}") int minCost,
+                                           @Value("${password-hashing.bcrypt.max-cost:16}") int maxCost,
+                                           @Value("${password-hashing.latency-budget:250ms}") Duration latencyBudget) {
+        BCryptCalibration calibration = pinnedCost > 0
+                ? BCryptCalibration.pinned(pinnedCost)
+                : BCryptCalibration.run(minCost, maxCost, latencyBudget);
+        // Supplier gauges: they hold their values strongly, the calibration itself isn't kept
+        int cost = calibration.getCost();
+        Gauge.builder("password.hash.bcrypt.cost", () -> cost)
+                .description("BCrypt cost new hashes are encoded with")
+                .register(meterRegistry);
+        calibration.getTimeByCost().forEach((measuredCost, time) ->
+                TimeGauge.builder("password.hash.calibration.time", time::toNanos, TimeUnit.NANOSECONDS)
+                        .tag("cost", String.valueOf(measuredCost))
+                        .description("BCrypt hash time measured at startup")
+                        .register(meterRegistry));
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(cost));
+        encoders.put("pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", encoders);
+        // Hashes stored before the {id} prefix: plain BCrypt, any cost
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return new MeteredPasswordEncoder(delegating, meterRegistry);
     }
 
     @Bean
@@ -36,7 +78,10 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())  // disable CSRF for APIs
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // no sessions
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/users/register", "/users/login").permitAll() // public endpoints
+                        .requestMatchers("/users/register", "/users/login", "/users/token/refresh").permitAll() // public endpoints
+                        // The JWT filter runs once per request, so the dispatch that writes an async
+                        // result (or an error page) carries no authentication; the request was checked
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .anyRequest().authenticated() // all other endpoints require JWT
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,101 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.model.CredentialCacheInvalidation;
+import org.example.model.UserCredentials;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Local username → credentials cache, filled only after a password has been
+ * verified against the entry, so repeat logins check the hash without touching
+ * the database. A password change drops the entry here and tells every other
+ * instance to drop it through a username-only message on Kafka. Entries also
+ * expire {@code login.credentials-cache.ttl} after they were written, which
+ * bounds how long a lost invalidation can keep an old password working.
+ */
+@Component
+public class CredentialCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialCache.class);
+
+    private final Cache<String, UserCredentials> credentials;
+    private final KafkaTemplate<String, CredentialCacheInvalidation> invalidationTemplate;
+    private final String invalidationTopic;
+    private final String origin = UUID.randomUUID().toString();
+
+    public CredentialCache(MeterRegistry meterRegistry,
+                           @Qualifier("credentialCacheInvalidationKafkaTemplate")
+                           ObjectProvider<KafkaTemplate<String, CredentialCacheInvalidation>> invalidationTemplate,
+                           @Value("${login.credentials-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${login.credentials-cache.ttl:PT5M}") Duration ttl,
+                           @Value("${login.credentials-cache.invalidation.topic:credential-cache-invalidations}") String invalidationTopic) {
+        this.credentials = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidationTemplate = invalidationTemplate.getIfAvailable();
+        this.invalidationTopic = invalidationTopic;
+        CaffeineCacheMetrics.monitor(meterRegistry, credentials, "loginCredentials");
+    }
+
+    public UserCredentials get(String username) {
+        return credentials.getIfPresent(username);
+    }
+
+    public void put(UserCredentials verified) {
+        credentials.put(verified.getUsername(), verified);
+    }
+
+    /** Drops the entry here and on every other instance; call after the change committed. */
+    public void invalidate(String username) {
+        credentials.invalidate(username);
+        broadcast(username);
+    }
+
+    /** Drops the entry on this instance only, e.g. once it was seen to be stale. */
+    public void evict(String username) {
+        credentials.invalidate(username);
+    }
+
+    /** Applies another instance's invalidation. */
+    public void onInvalidation(CredentialCacheInvalidation invalidation) {
+        if (origin.equals(invalidation.getOrigin()) || invalidation.getUsername() == null) {
+            return;
+        }
+        evict(invalidation.getUsername());
+    }
+
+    // The change is already committed: a failed publish is only logged
+    private void broadcast(String username) {
+        if (invalidationTemplate == null) {
+            return;
+        }
+        try {
+            invalidationTemplate.send(invalidationTopic, new CredentialCacheInvalidation(origin, username))
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            logWarning(username, e);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            logWarning(username, e);
+        }
+    }
+
+    private static void logWarning(String username, Throwable e) {
+        logger.warn("Could not publish credential invalidation for {}; peers will expire it", username, e);
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Token buckets for authentication attempts, one set keyed by username and one
+ * by source address, checked before any password hash is computed. Every key
+ * has its own bucket, so one username can never spend another's budget. Buckets
+ * live in a bounded map and are dropped after a refill period without use, when
+ * they would be full again anyway; only the locks guarding them are striped.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Buckets byUsername;
+    private final Buckets bySource;
+    private final Counter rejectedByUsername;
+    private final Counter rejectedBySource;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${login.rate-limit.stripes:4096}") int stripes,
+                            @Value("${login.rate-limit.maximum-keys:100000}") long maximumKeys,
+                            @Value("${login.rate-limit.username.capacity:5}") int usernameCapacity,
+                            @Value("${login.rate-limit.username.refill-period:PT1M}") Duration usernameRefillPeriod,
+                            @Value("${login.rate-limit.source.capacity:30}") int sourceCapacity,
+                            @Value("${login.rate-limit.source.refill-period:PT1M}") Duration sourceRefillPeriod) {
+        this.byUsername = new Buckets(stripes, maximumKeys, usernameCapacity, usernameRefillPeriod);
+        this.bySource = new Buckets(stripes, maximumKeys, sourceCapacity, sourceRefillPeriod);
+        this.rejectedByUsername = Counter.builder("login.rate-limit.rejected").tag("key", "username").register(meterRegistry);
+        this.rejectedBySource = Counter.builder("login.rate-limit.rejected").tag("key", "source").register(meterRegistry);
+    }
+
+    /** Takes one attempt from both the username's and the source's bucket, or throws. */
+    public void acquireLogin(String username, String source) {
+        acquire(bySource, source, rejectedBySource);
+        try {
+            acquire(byUsername, username.toLowerCase(Locale.ROOT), rejectedByUsername);
+        } catch (TooManyRequestsException e) {
+            bySource.refund(source);
+            throw e;
+        }
+    }
+
+    /** Registration hashes too, but has no username history worth protecting: source only. */
+    public void acquireRegistration(String source) {
+        acquire(bySource, source, rejectedBySource);
+    }
+
+    private static void acquire(Buckets buckets, String key, Counter rejected) {
+        long waitNanos = buckets.tryAcquire(key);
+        if (waitNanos > 0) {
+            rejected.increment();
+            long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000);
+            throw new TooManyRequestsException("Too many login attempts, try again later", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Buckets with a shared capacity and refill rate, one per key. Tokens are
+     * stored in nanoseconds of refill time, so a bucket is two longs and taking a
+     * token needs no floating point. A bucket evicted early (more than
+     * maximum-keys live keys) comes back full, which the size bound trades for
+     * constant memory under a spray of usernames.
+     */
+    private static final class Buckets {
+        private final Cache<String, Bucket> buckets;
+        private final Object[] locks;
+        private final int mask;
+        private final long nanosPerToken;
+        private final long capacityNanos;
+
+        private Buckets(int stripes, long maximumKeys, int capacity, Duration refillPeriod) {
+            int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+            this.locks = new Object[size];
+            for (int i = 0; i < size; i++) {
+                locks[i] = new Object();
+            }
+            this.mask = size - 1;
+            this.nanosPerToken = refillPeriod.toNanos() / capacity;
+            this.capacityNanos = nanosPerToken * capacity;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maximumKeys)
+                    .expireAfterAccess(refillPeriod)
+                    .build();
+        }
+
+        /** 0 when a token was taken, else the nanos until one is available. */
+        private long tryAcquire(String key) {
+            synchronized (locks[stripe(key)]) {
+                long now = System.nanoTime();
+                Bucket bucket = buckets.get(key, k -> new Bucket(capacityNanos, now));
+                long available = Math.min(capacityNanos, bucket.tokens + (now - bucket.refilledAt));
+                bucket.refilledAt = now;
+                if (available < nanosPerToken) {
+                    bucket.tokens = available;
+                    return nanosPerToken - available;
+                }
+                bucket.tokens = available - nanosPerToken;
+                return 0;
+            }
+        }
+
+        private void refund(String key) {
+            synchronized (locks[stripe(key)]) {
+                Bucket bucket = buckets.getIfPresent(key);
+                if (bucket != null) {
+                    bucket.tokens = Math.min(capacityNanos, bucket.tokens + nanosPerToken);
+                }
+            }
+        }
+
+        private int stripe(String key) {
+            int h = key.hashCode();
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+
+    // Guarded by the lock stripe of its key
+    private static final class Bucket {
+        private long tokens;        // in nanos of refill time
+        private long refilledAt;
+
+        private Bucket(long tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
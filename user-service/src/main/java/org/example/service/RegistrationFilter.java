@@ -0,0 +1,92 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.common.BloomFilter;
+import org.example.model.User;
+import org.example.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters over every username and email, so registration can tell that
+ * a name is definitely free without a query. Only a "maybe taken" answer costs
+ * an exists query; the unique constraints stay the authority, so a row this
+ * instance has not seen (inserted elsewhere) still fails at insert. Until the
+ * filters are loaded at startup, everything counts as maybe taken.
+ */
+@Component
+public class RegistrationFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationFilter.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private final Counter skippedChecks;
+    private volatile boolean warm;
+
+    public RegistrationFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${registration.bloom.expected-users:1000000}") long expectedUsers,
+                              @Value("${registration.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.skippedChecks = Counter.builder("registration.bloom.skipped-checks")
+                .description("Exists queries skipped because a filter answered definitely free")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        long started = System.nanoTime();
+        Long loaded = readOnlyTransaction.execute(status -> {
+            long[] count = {0};
+            try (Stream<Object[]> rows = userRepository.streamUsernamesAndEmails()) {
+                rows.forEach(row -> {
+                    usernames.put((String) row[0]);
+                    emails.put((String) row[1]);
+                    count[0]++;
+                });
+            }
+            return count[0];
+        });
+        warm = true;
+        logger.info("Registration filters loaded {} users in {} ms ({} bits, {} hashes each)",
+                loaded, (System.nanoTime() - started) / 1_000_000, usernames.bitCount(), usernames.hashCount());
+    }
+
+    public boolean mightHaveUsername(String username) {
+        return mightContain(usernames, username);
+    }
+
+    public boolean mightHaveEmail(String email) {
+        return mightContain(emails, email);
+    }
+
+    /** Called for every committed user, before or after warm-up. */
+    public void add(User user) {
+        usernames.put(user.getUsername());
+        emails.put(user.getEmail());
+    }
+
+    private boolean mightContain(BloomFilter filter, String value) {
+        if (warm && !filter.mightContain(value)) {
+            skippedChecks.increment();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.model.RefreshToken;
+import org.example.model.TokenResponse;
+import org.example.repository.RefreshTokenRepository;
+import org.example.security.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues short-lived access tokens with rotating refresh tokens. A refresh
+ * token is 256 random bits, so a single SHA-256 is enough to store it: the
+ * lookup is one indexed read and never touches the password hash.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom random = new SecureRandom();
+    private final Counter rotated;
+    private final Counter reuseDetected;
+
+    public TokenService(RefreshTokenRepository refreshTokenRepository, JwtUtil jwtUtil, MeterRegistry meterRegistry,
+                        @Value("${jwt.refresh-token.ttl:P30D}") Duration refreshTokenTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.rotated = Counter.builder("refresh-token.rotated").register(meterRegistry);
+        this.reuseDetected = Counter.builder("refresh-token.reuse-detected")
+                .description("Used refresh tokens presented again; their family was revoked")
+                .register(meterRegistry);
+    }
+
+    /** Tokens for a fresh login: a new refresh token family. */
+    @Transactional
+    public TokenResponse issue(Long userId, String username) {
+        return issue(userId, username, UUID.randomUUID());
+    }
+
+    /**
+     * Trades a refresh token for a new access token and the next refresh token
+     * of its family. Empty when the token is unknown, expired or revoked. A token
+     * that was already used means it leaked (or the family did): every token of
+     * the family is revoked, so the client has to log in again.
+     */
+    @Transactional
+    public Optional<TokenResponse> refresh(String rawToken) {
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHash(hash(rawToken));
+        if (found.isEmpty() || found.get().isRevoked()) {
+            return Optional.empty();
+        }
+        RefreshToken token = found.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getExpiresAt().isBefore(now)) {
+            return Optional.empty();
+        }
+        // Conditional update: of two refreshes racing on one token, exactly one wins
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            reuseDetected.increment();
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId());
+            logger.warn("Refresh token reuse for userId {}: revoked {} tokens of its family", token.getUserId(), revoked);
+            return Optional.empty();
+        }
+        rotated.increment();
+        return Optional.of(issue(token.getUserId(), token.getUsername(), token.getFamilyId()));
+    }
+
+    /** Revokes every refresh token of the user; access tokens already issued run out on their own. */
+    public int revokeAll(Long userId) {
+        return refreshTokenRepository.revokeAllForUser(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private TokenResponse issue(Long userId, String username, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .userId(userId)
+                .username(username)
+                .expiresAt(LocalDateTime.now().plus(refreshTokenTtl))
+                .build());
+        return new TokenResponse(jwtUtil.generateToken(username, userId), rawToken, "Bearer",
+                jwtUtil.getAccessTokenTtl().toSeconds());
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(sha256.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
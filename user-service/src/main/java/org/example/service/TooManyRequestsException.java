@@ -0,0 +1,21 @@
+package org.example.service;
+
+/**
+ * The caller should back off: its login budget is spent, or password hashing is
+ * at capacity. Answered with 429 and a Retry-After of {@link #getRetryAfterSeconds()}.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,31 +1,136 @@
 package org.example.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.example.model.User;
+import org.example.model.UserCredentials;
+import org.example.model.UserSummary;
 import org.example.repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserService {
+
+    private static final int HASH_SLICE = 4;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashExecutor passwordHashExecutor;
+    private final CredentialCache credentialCache;
+    private final TokenService tokenService;
+    private final RegistrationFilter registrationFilter;
+    private final UserSummaryCache userSummaryCache;
+    private final ObjectMapper objectMapper;
+    private final Counter rehashed;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       PasswordHashExecutor passwordHashExecutor, CredentialCache credentialCache,
+                       TokenService tokenService, RegistrationFilter registrationFilter,
+                       UserSummaryCache userSummaryCache, ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHashExecutor = passwordHashExecutor;
+        this.credentialCache = credentialCache;
+        this.tokenService = tokenService;
+        this.registrationFilter = registrationFilter;
+        this.userSummaryCache = userSummaryCache;
+        this.objectMapper = objectMapper;
+        this.rehashed = Counter.builder("password.rehashed")
+                .description("Stored hashes upgraded to the current algorithm and cost on login")
+                .register(meterRegistry);
     }
 
-    public User register(User user) {
-        if (userRepository.existsByUsername(user.getUsername())) {
+    /**
+     * Hashes, then inserts once and lets the unique constraints catch duplicates.
+     * The exists queries only run, on the caller's thread, for a name the
+     * registration filter can't rule out, so a taken name still fails before
+     * any hashing; the hash and the insert run on the password-hash pool.
+     */
+    public CompletableFuture<User> register(User user) {
+        if (registrationFilter.mightHaveUsername(user.getUsername()) && userRepository.existsByUsername(user.getUsername())) {
             throw new RuntimeException("Username already exists");
         }
-        if (userRepository.existsByEmail(user.getEmail())) {
+        if (registrationFilter.mightHaveEmail(user.getEmail()) && userRepository.existsByEmail(user.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        String rawPassword = user.getPassword();
+        return passwordHashExecutor.submit(() -> {
+            user.setPassword(passwordEncoder.encode(rawPassword));
+            try {
+                User saved = userRepository.saveAndFlush(user);
+                registrationFilter.add(saved);
+                return saved;
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateOf(List.of(user), e);
+            }
+        });
+    }
+
+    /**
+     * All or nothing, for partner migrations: duplicates inside the batch or
+     * against existing users fail the batch before anything is hashed. Hashing
+     * is queued slice by slice on half the pool, so logins keep their turn, and
+     * the rows go out as batched inserts in one transaction. Completes with the new ids
+     * in request order.
+     */
+    public CompletableFuture<List<Long>> registerAll(List<User> users) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (User user : users) {
+            if (!usernames.add(user.getUsername())) {
+                throw new RuntimeException("Duplicate username in batch: " + user.getUsername());
+            }
+            if (!emails.add(user.getEmail())) {
+                throw new RuntimeException("Duplicate email in batch: " + user.getEmail());
+            }
+        }
+        List<String> maybeTakenUsernames = usernames.stream().filter(registrationFilter::mightHaveUsername).toList();
+        List<String> maybeTakenEmails = emails.stream().filter(registrationFilter::mightHaveEmail).toList();
+        requireFree(maybeTakenUsernames.isEmpty() ? List.of() : userRepository.findExistingUsernames(maybeTakenUsernames),
+                maybeTakenEmails.isEmpty() ? List.of() : userRepository.findExistingEmails(maybeTakenEmails));
+
+        // Each lane queues its next slice only when the previous one is done, so
+        // logins queued meanwhile wait for at most one slice, not the whole batch
+        int slices = (users.size() + HASH_SLICE - 1) / HASH_SLICE;
+        int lanes = Math.min(slices, Math.max(1, passwordHashExecutor.getThreads() / 2));
+        List<CompletableFuture<Void>> chains = new ArrayList<>(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int from = lane * HASH_SLICE; from < users.size(); from += lanes * HASH_SLICE) {
+                List<User> slice = users.subList(from, Math.min(users.size(), from + HASH_SLICE));
+                chain = chain.thenCompose(ignored -> passwordHashExecutor.submit(() -> {
+                    slice.forEach(user -> user.setPassword(passwordEncoder.encode(user.getPassword())));
+                    return null;
+                }));
+            }
+            chains.add(chain);
+        }
+        return CompletableFuture.allOf(chains.toArray(CompletableFuture<?>[]::new)).thenApply(ignored -> {
+            try {
+                List<User> saved = userRepository.saveAll(users);
+                saved.forEach(registrationFilter::add);
+                return saved.stream().map(User::getId).toList();
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateOf(users, e);
+            }
+        });
     }
 
     public Optional<User> findByUsername(String username) {
@@ -36,14 +141,149 @@ public class UserService {
         return userRepository.findById(id);
     }
 
-    public boolean authenticate(String username, String rawPassword) {
-        return userRepository.findByUsername(username)
-                .map(u -> passwordEncoder.matches(rawPassword, u.getPassword()))
-                .orElse(false);
+    public Optional<UserSummary> getSummary(Long id) {
+        return Optional.ofNullable(getSummaries(List.of(id)).get(id));
+    }
+
+    /**
+     * Summaries of the users that exist among the ids, in order of first
+     * occurrence; repeated ids are looked up once, and cache misses are read
+     * with one IN query over the projection.
+     */
+    public Map<Long, UserSummary> getSummaries(Collection<Long> userIds) {
+        Set<Long> distinct = new LinkedHashSet<>(userIds);
+        Map<Long, UserSummary> found = userSummaryCache.getAll(distinct, userRepository::findSummariesByIdIn);
+        Map<Long, UserSummary> result = new LinkedHashMap<>();
+        for (Long id : distinct) {
+            UserSummary summary = found.get(id);
+            if (summary != null) {
+                result.put(id, summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@link #getSummaries} as a JSON array, serialized straight to the response
+     * stream. The lookup happens here, so a failure is still an ordinary error
+     * response rather than a cut-off body.
+     */
+    public StreamingResponseBody streamSummaries(Collection<Long> userIds) {
+        Collection<UserSummary> summaries = getSummaries(userIds).values();
+        return out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                json.writeStartArray();
+                for (UserSummary summary : summaries) {
+                    json.writeObject(summary);
+                }
+                json.writeEndArray();
+            }
+        };
+    }
+
+    /**
+     * Completes with the user's credentials when the password matches, empty
+     * otherwise; the check runs on the hash pool. Loads the credentials
+     * projection in one query, or none when the username was verified recently.
+     * A matching hash stored with an old cost or algorithm is upgraded in place.
+     */
+    public CompletableFuture<Optional<UserCredentials>> authenticate(String username, String rawPassword) {
+        UserCredentials cached = credentialCache.get(username);
+        if (cached != null) {
+            return passwordHashExecutor.submit(() -> verifyCached(cached, rawPassword));
+        }
+        Optional<UserCredentials> credentials = userRepository.findCredentialsByUsername(username);
+        if (credentials.isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return passwordHashExecutor.submit(() -> verify(credentials.get(), rawPassword));
+    }
+
+    /**
+     * Completes with false when {@code currentPassword} is wrong. The new hash is
+     * written with a single update, the cached credentials are dropped and every
+     * refresh token of the user is revoked.
+     */
+    public CompletableFuture<Boolean> changePassword(Long userId, String currentPassword, String newPassword) {
+        UserCredentials credentials = userRepository.findCredentialsById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return passwordHashExecutor.submit(() -> {
+            if (!passwordEncoder.matches(currentPassword, credentials.getPasswordHash())) {
+                return false;
+            }
+            userRepository.updatePassword(userId, passwordEncoder.encode(newPassword));
+            credentialCache.invalidate(credentials.getUsername());
+            tokenService.revokeAll(userId);
+            return true;
+        });
+    }
+
+    // Names registered since the pre-check (here or on another instance): ask the table which ones
+    private RuntimeException duplicateOf(List<User> users, DataIntegrityViolationException e) {
+        try {
+            requireFree(userRepository.findExistingUsernames(users.stream().map(User::getUsername).toList()),
+                    userRepository.findExistingEmails(users.stream().map(User::getEmail).toList()));
+        } catch (RuntimeException duplicate) {
+            return duplicate;
+        }
+        return e;
+    }
+
+    private static void requireFree(List<String> takenUsernames, List<String> takenEmails) {
+        if (takenUsernames.size() == 1 && takenEmails.isEmpty()) {
+            throw new RuntimeException("Username already exists");
+        }
+        if (takenEmails.size() == 1 && takenUsernames.isEmpty()) {
+            throw new RuntimeException("Email already exists");
+        }
+        if (!takenUsernames.isEmpty()) {
+            throw new RuntimeException("Usernames already exist: " + abbreviate(takenUsernames));
+        }
+        if (!takenEmails.isEmpty()) {
+            throw new RuntimeException("Emails already exist: " + abbreviate(takenEmails));
+        }
+    }
+
+    private static String abbreviate(List<String> values) {
+        return values.size() <= 10 ? values.toString() : values.subList(0, 10) + " and " + (values.size() - 10) + " more";
+    }
+
+    private Optional<UserCredentials> verify(UserCredentials credentials, String rawPassword) {
+        if (!passwordEncoder.matches(rawPassword, credentials.getPasswordHash())) {
+            return Optional.empty();
+        }
+        UserCredentials current = upgradeIfNeeded(credentials, rawPassword);
+        credentialCache.put(current);
+        return Optional.of(current);
+    }
+
+    // The raw password is only at hand here: a hash with an old cost or algorithm
+    // is replaced while we have it, at the price of one extra hash for this login
+    private UserCredentials upgradeIfNeeded(UserCredentials credentials, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(credentials.getPasswordHash())) {
+            return credentials;
+        }
+        String upgraded = passwordEncoder.encode(rawPassword);
+        if (userRepository.replacePasswordHash(credentials.getId(), credentials.getPasswordHash(), upgraded) == 0) {
+            return credentials;  // changed meanwhile; the next login sees the new hash
+        }
+        rehashed.increment();
+        return new UserCredentials(credentials.getId(), credentials.getUsername(), upgraded);
     }
 
-    public Long getId(String username) {
-        Optional<User> user=userRepository.findByUsername(username);
-        return user.get().getId();
+    // A match is trusted as is: changes made elsewhere drop the entry through the
+    // invalidation topic. A miss is either a wrong password or a change whose
+    // invalidation hasn't arrived yet: only the latter, seen as a different stored
+    // hash, is hashed again
+    private Optional<UserCredentials> verifyCached(UserCredentials cached, String rawPassword) {
+        if (passwordEncoder.matches(rawPassword, cached.getPasswordHash())) {
+            return Optional.of(cached);
+        }
+        Optional<UserCredentials> current = userRepository.findCredentialsByUsername(cached.getUsername());
+        if (current.isPresent() && current.get().getPasswordHash().equals(cached.getPasswordHash())) {
+            return Optional.empty();
+        }
+        credentialCache.evict(cached.getUsername());
+        return current.flatMap(credentials -> verify(credentials, rawPassword));
     }
 }
@@ -0,0 +1,48 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.model.UserSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Local id → {@link UserSummary} cache for lookups from other services.
+ * Usernames and emails can't be changed, so entries only leave by size/TTL
+ * eviction.
+ */
+@Component
+public class UserSummaryCache {
+
+    private final Cache<Long, UserSummary> summaries;
+
+    public UserSummaryCache(MeterRegistry meterRegistry,
+                            @Value("${users.summary-cache.maximum-size:100000}") long maximumSize,
+                            @Value("${users.summary-cache.ttl:PT10M}") Duration ttl) {
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, summaries, "userSummaries");
+    }
+
+    /**
+     * Cached summaries plus one loader call for all the misses. Ids that don't
+     * exist are absent from the map (and not cached).
+     */
+    public Map<Long, UserSummary> getAll(Collection<Long> userIds, Function<Collection<Long>, List<UserSummary>> bulkLoader) {
+        return summaries.getAll(userIds, missing -> bulkLoader.apply(new ArrayList<>(missing)).stream()
+                .collect(Collectors.toMap(UserSummary::getId, Function.identity())));
+    }
+}
@@ -0,0 +1,7 @@
+-- Ids used to come from IDENTITY columns. Move each id sequence past the ids
+-- already in its table; once a sequence is ahead this matches no row and does
+-- nothing. The 50 is the allocationSize of the entity's @SequenceGenerator:
+-- after nextval returned v, ids up to v + 49 may be in use.
+SELECT setval('users_seq', t.max_id + 1, false)
+FROM (SELECT max(id) AS max_id FROM users) t, users_seq s
+WHERE t.max_id >= s.last_value + CASE WHEN s.is_called THEN 50 ELSE 0 END;
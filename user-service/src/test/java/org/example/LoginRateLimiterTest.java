@@ -0,0 +1,38 @@
+package org.example;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.service.LoginRateLimiter;
+import org.example.service.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginRateLimiterTest {
+
+    private final LoginRateLimiter limiter = new LoginRateLimiter(new SimpleMeterRegistry(),
+            16, 1000, 5, Duration.ofMinutes(1), 100, Duration.ofMinutes(1));
+
+    @Test
+    void usernamesWithTheSameHashKeepTheirOwnBudget() {
+        assertEquals("AaAa".hashCode(), "BBBB".hashCode());
+        for (int i = 0; i < 5; i++) {
+            limiter.acquireLogin("AaAa", "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquireLogin("AaAa", "10.0.0.1"));
+
+        // Locked out "AaAa" must not lock out its hash twin
+        assertDoesNotThrow(() -> limiter.acquireLogin("BBBB", "10.0.0.1"));
+    }
+
+    @Test
+    void usernameBudgetIgnoresCase() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquireLogin("Alice", "10.0.0.2");
+        }
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquireLogin("ALICE", "10.0.0.3"));
+    }
+}
@@ -0,0 +1,71 @@
+package org.example;
+
+import org.example.model.CredentialCacheInvalidation;
+import org.example.model.User;
+import org.example.repository.UserRepository;
+import org.example.service.CredentialCache;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PasswordChangeTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void oldPasswordIsRejectedAfterAChange() {
+        User user = register("old-password");
+        assertTrue(userService.authenticate(user.getUsername(), "old-password").join().isPresent());
+
+        assertTrue(userService.changePassword(user.getId(), "old-password", "new-password").join());
+
+        assertEquals(Optional.empty(), userService.authenticate(user.getUsername(), "old-password").join());
+        assertTrue(userService.authenticate(user.getUsername(), "new-password").join().isPresent());
+    }
+
+    @Test
+    void invalidationFromAnotherInstanceDropsTheCachedCredentials() {
+        User user = register("old-password");
+        // Verified once, so the next login is a cache hit
+        assertTrue(userService.authenticate(user.getUsername(), "old-password").join().isPresent());
+
+        // Another instance changes the password; until its invalidation arrives,
+        // hits are answered from the cache without reading the row
+        userRepository.updatePassword(user.getId(), passwordEncoder.encode("new-password"));
+        assertTrue(userService.authenticate(user.getUsername(), "old-password").join().isPresent());
+
+        credentialCache.onInvalidation(new CredentialCacheInvalidation("other-instance", user.getUsername()));
+
+        assertEquals(Optional.empty(), userService.authenticate(user.getUsername(), "old-password").join());
+        assertTrue(userService.authenticate(user.getUsername(), "new-password").join().isPresent());
+    }
+
+    private User register(String password) {
+        String name = "pwchange" + System.nanoTime();
+        return userService.register(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password(password)
+                .build()).join();
+    }
+}
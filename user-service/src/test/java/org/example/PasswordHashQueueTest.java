@@ -0,0 +1,78 @@
+package org.example;
+
+import org.example.model.User;
+import org.example.service.PasswordHashExecutor;
+import org.example.service.TooManyRequestsException;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"password-hashing.threads=1", "password-hashing.queue-capacity=1"})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class PasswordHashQueueTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @Test
+    void fullQueueAnswersTooManyRequestsWithRetryAfter() throws Exception {
+        String name = "hashqueue" + System.nanoTime();
+        userService.register(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password("password")
+                .build()).join();
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // One task holds the only thread, one more fills the queue
+            passwordHashExecutor.submit(() -> {
+                running.countDown();
+                awaitUninterruptibly(release);
+                return null;
+            });
+            running.await();
+            passwordHashExecutor.submit(() -> null);
+            assertThrows(TooManyRequestsException.class, () -> passwordHashExecutor.submit(() -> null));
+
+            mockMvc.perform(post("/users/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"username\":\"" + name + "\",\"password\":\"password\"}"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().exists("Retry-After"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+                // keep holding the thread until the test releases it
+            }
+        }
+    }
+}
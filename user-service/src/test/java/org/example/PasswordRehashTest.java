@@ -0,0 +1,83 @@
+package org.example;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.model.User;
+import org.example.repository.UserRepository;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// New hashes use cost 5 here; the stored ones are cost 4
+@SpringBootTest(properties = "password-hashing.bcrypt.cost=5")
+@ActiveProfiles("test")
+class PasswordRehashTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void oldCostHashIsUpgradedOnceOnLogin() {
+        Long id = saveWithHash("{bcrypt}" + new BCryptPasswordEncoder(4).encode("password"));
+        double rehashedBefore = rehashed();
+
+        assertTrue(userService.authenticate(username(id), "password").join().isPresent());
+
+        String upgraded = userRepository.findById(id).orElseThrow().getPassword();
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$05$"), upgraded);
+        assertEquals(rehashedBefore + 1, rehashed());
+
+        // Already at the current cost: later logins leave it alone
+        assertTrue(userService.authenticate(username(id), "password").join().isPresent());
+        assertEquals(upgraded, userRepository.findById(id).orElseThrow().getPassword());
+        assertEquals(rehashedBefore + 1, rehashed());
+    }
+
+    @Test
+    void legacyUnprefixedHashIsUpgraded() {
+        Long id = saveWithHash(new BCryptPasswordEncoder(4).encode("password"));
+
+        assertTrue(userService.authenticate(username(id), "password").join().isPresent());
+
+        assertTrue(userRepository.findById(id).orElseThrow().getPassword().startsWith("{bcrypt}$2a$05$"));
+    }
+
+    @Test
+    void wrongPasswordLeavesTheHashAlone() {
+        String stored = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password");
+        Long id = saveWithHash(stored);
+
+        assertFalse(userService.authenticate(username(id), "wrong-password").join().isPresent());
+
+        assertEquals(stored, userRepository.findById(id).orElseThrow().getPassword());
+    }
+
+    private Long saveWithHash(String hash) {
+        String name = "rehash" + System.nanoTime();
+        return userRepository.saveAndFlush(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password(hash)
+                .build()).getId();
+    }
+
+    private String username(Long id) {
+        return userRepository.findById(id).orElseThrow().getUsername();
+    }
+
+    private double rehashed() {
+        return meterRegistry.counter("password.rehashed").count();
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.model.TokenResponse;
+import org.example.service.TokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenRotationTest {
+
+    private static final long USER_ID = 900_000_001L;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void refreshRotatesTheToken() {
+        TokenResponse login = tokenService.issue(USER_ID, "rotation-user");
+
+        TokenResponse refreshed = tokenService.refresh(login.getRefreshToken()).orElseThrow();
+
+        assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+        assertTrue(tokenService.refresh(refreshed.getRefreshToken()).isPresent());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheFamily() {
+        double reusesBefore = meterRegistry.counter("refresh-token.reuse-detected").count();
+        TokenResponse login = tokenService.issue(USER_ID, "rotation-user");
+        TokenResponse refreshed = tokenService.refresh(login.getRefreshToken()).orElseThrow();
+
+        // The first token again, e.g. replayed by whoever stole it
+        assertEquals(Optional.empty(), tokenService.refresh(login.getRefreshToken()));
+
+        // Its successor was revoked with the rest of the family
+        assertEquals(Optional.empty(), tokenService.refresh(refreshed.getRefreshToken()));
+        assertEquals(reusesBefore + 1, meterRegistry.counter("refresh-token.reuse-detected").count());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertEquals(Optional.empty(), tokenService.refresh("not-a-refresh-token"));
+    }
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import org.example.model.User;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RegistrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void duplicateUsernameIsReported() {
+        String name = "duplicate" + System.nanoTime();
+        assertNotNull(userService.register(user(name, name + "@example.com")).join().getId());
+
+        RuntimeException duplicate = assertThrows(RuntimeException.class,
+                () -> userService.register(user(name, "other-" + name + "@example.com")).join());
+        assertEquals("Username already exists", duplicate.getMessage());
+
+        RuntimeException duplicateEmail = assertThrows(RuntimeException.class,
+                () -> userService.register(user("other" + name, name + "@example.com")).join());
+        assertEquals("Email already exists", duplicateEmail.getMessage());
+    }
+
+    @Test
+    void batchIsRejectedWhenAnyUsernameIsTaken() {
+        String taken = "batchtaken" + System.nanoTime();
+        userService.register(user(taken, taken + "@example.com")).join();
+        String fresh = "batchfresh" + System.nanoTime();
+
+        RuntimeException duplicate = assertThrows(RuntimeException.class, () -> userService.registerAll(List.of(
+                user(fresh, fresh + "@example.com"),
+                user(taken, "other-" + taken + "@example.com"))).join());
+        assertEquals("Username already exists", duplicate.getMessage());
+        assertTrue(userService.findByUsername(fresh).isEmpty());
+    }
+
+    @Test
+    void batchRegistersEveryUserInOrder() {
+        long run = System.nanoTime();
+        List<User> users = List.of(
+                user("batch" + run + "a", "batch" + run + "a@example.com"),
+                user("batch" + run + "b", "batch" + run + "b@example.com"),
+                user("batch" + run + "c", "batch" + run + "c@example.com"));
+
+        List<Long> ids = userService.registerAll(users).join();
+
+        assertEquals(3, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(users.get(i).getUsername(), userService.findById(ids.get(i)).orElseThrow().getUsername());
+        }
+    }
+
+    private static User user(String username, String email) {
+        return User.builder()
+                .username(username)
+                .email(email)
+                .password("password")
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package org.example;
+
+import org.example.model.User;
+import org.example.model.UserSummary;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserSummaryTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void summariesComeBackInRequestOrderWithoutUnknownIds() {
+        long run = System.nanoTime();
+        List<Long> ids = userService.registerAll(List.of(
+                user("summary" + run + "a"),
+                user("summary" + run + "b"))).join();
+        Long first = ids.get(0);
+        Long second = ids.get(1);
+
+        Map<Long, UserSummary> summaries = userService.getSummaries(List.of(second, -1L, first, second));
+
+        assertEquals(List.of(second, first), List.copyOf(summaries.keySet()));
+        assertEquals("summary" + run + "a", summaries.get(first).getUsername());
+        assertEquals("summary" + run + "b@example.com", summaries.get(second).getEmail());
+        // Served from the cache the second time
+        assertSame(summaries.get(first), userService.getSummary(first).orElseThrow());
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .build();
+    }
+}